@@ -0,0 +1,67 @@
+package xadrez;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import xadrez.motor.BuscaParalela;
+import xadrez.motor.LimitesBusca;
+import xadrez.motor.ResultadoBusca;
+import xadrez.motor.TabelaTransposicao;
+
+// tempo ate a profundidade fixa com tabela limpa: a razao entre threads=1 e threads=N eh o ganho do lazy SMP
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuscaParalelaBenchmark {
+
+	@Param({ "MEIO_JOGO", "FINAL" })
+	public CorpusPosicoes posicao;
+
+	@Param({ "1", "2", "4", "8" })
+	public int threads;
+
+	@Param({ "6" })
+	public int profundidade;
+
+	private TabelaTransposicao tabela;
+	private BuscaParalela busca;
+
+	@Setup(Level.Trial)
+	public void criar() {
+		tabela = new TabelaTransposicao(64);
+		busca = new BuscaParalela(posicao.criar(), tabela, threads);
+	}
+
+	@Setup(Level.Invocation)
+	public void limparTabela() {
+		tabela.limpar();
+		busca.preparar();
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		busca.encerrar();
+	}
+
+	@Benchmark
+	public ResultadoBusca buscar() {
+		return busca.buscar(LimitesBusca.porProfundidade(profundidade));
+	}
+
+}
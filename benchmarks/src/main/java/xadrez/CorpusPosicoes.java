@@ -0,0 +1,26 @@
+package xadrez;
+
+public enum CorpusPosicoes {
+
+	ABERTURA("e2e4 e7e5 g1f3 b8c6 f1b5 a7a6"),
+	MEIO_JOGO("e2e4 e7e5 g1f3 b8c6 f1c4 f8c5 c2c3 g8f6 d2d3 d7d6 e1g1 e8g8 b1d2 a7a6 a2a4 c8e6 c4e6 f7e6 d2c4 d8e8 "
+			+ "c1e3 c5e3 c4e3 f6h5"),
+	FINAL("e2e4 d7d5 e4d5 d8d5 b1c3 d5e5 d1e2 e5e2 f1e2 c8f5 d2d3 b8c6 c1f4 e8c8 e1c1 g8f6 g1f3 e7e6 f3d4 c6d4 "
+			+ "e2f3 d4f3 g2f3 f8b4 f4e5 b4c3 b2c3 f6d5 c1d2 d5c3 d2c3 f5d3 c2d3 d8d3 c3d3 h8d8 d3e4 d8d1 h1d1");
+
+	private final String movimentos;
+
+	private CorpusPosicoes(String movimentos) {
+		this.movimentos = movimentos;
+	}
+
+	public PartidaXadrez criar() {
+		PartidaXadrez partida = new PartidaXadrez();
+		for (String m : movimentos.split(" ")) {
+			partida.executaPecaXadrez(new PosicaoXadrez(m.charAt(0), m.charAt(1) - '0'),
+					new PosicaoXadrez(m.charAt(2), m.charAt(3) - '0'));
+		}
+		return partida;
+	}
+
+}
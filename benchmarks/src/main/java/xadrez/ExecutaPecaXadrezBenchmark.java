@@ -0,0 +1,69 @@
+package xadrez;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// executaPecaXadrez nao tem desfazer publico e o lance leva microssegundos, menos que um setup por
+// invocacao: cada iteracao prepara um lote de copias fora da medicao e cada disparo mede o lote inteiro.
+// O resultado eh o tempo de LOTE lances; dividir por LOTE da o custo de um. O profiler de GC conta o
+// preparo do lote, entao a alocacao de um lance eh gc.alloc.rate.norm / LOTE menos a de
+// PartidaXadrezBenchmark.copiar
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, batchSize = ExecutaPecaXadrezBenchmark.LOTE)
+@Measurement(iterations = 30, batchSize = ExecutaPecaXadrezBenchmark.LOTE)
+@Fork(1)
+public class ExecutaPecaXadrezBenchmark {
+
+	static final int LOTE = 1000;
+
+	@Param({ "ABERTURA", "MEIO_JOGO", "FINAL" })
+	public CorpusPosicoes posicao;
+
+	private PartidaXadrez original;
+	private PosicaoXadrez origem;
+	private PosicaoXadrez destino;
+	private final PartidaXadrez[] lote = new PartidaXadrez[LOTE];
+	private int proxima;
+
+	@Setup(Level.Trial)
+	public void escolherMovimento() {
+		original = posicao.criar();
+		ListaMovimentos lista = new ListaMovimentos();
+		original.gerarMovimentosLegais(lista);
+		int movimento = lista.get(lista.getTamanho() / 2);
+		origem = posicaoXadrez(Movimento.origem(movimento));
+		destino = posicaoXadrez(Movimento.destino(movimento));
+	}
+
+	@Setup(Level.Iteration)
+	public void prepararLote() {
+		for (int i = 0; i < LOTE; i++) {
+			lote[i] = new PartidaXadrez(original);
+		}
+		proxima = 0;
+	}
+
+	@Benchmark
+	public PecaXadrez executaPecaXadrez() {
+		return lote[proxima++].executaPecaXadrez(origem, destino);
+	}
+
+	private static PosicaoXadrez posicaoXadrez(int casa) {
+		return new PosicaoXadrez((char) ('a' + Bitboards.coluna(casa)), 8 - Bitboards.linha(casa));
+	}
+
+}
@@ -0,0 +1,20 @@
+package xadrez;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class ExecutarBenchmarks {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions linhaComando = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder()
+				.parent(linhaComando)
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+
+}
@@ -0,0 +1,55 @@
+package xadrez;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartidaXadrezBenchmark {
+
+	@Param({ "ABERTURA", "MEIO_JOGO", "FINAL" })
+	public CorpusPosicoes posicao;
+
+	private PartidaXadrez partida;
+
+	@Setup
+	public void preparar() {
+		partida = posicao.criar();
+	}
+
+	@Benchmark
+	public boolean testeXeque() {
+		return partida.testeXeque(partida.getJogadorAtual());
+	}
+
+	@Benchmark
+	public boolean testeXequeMate() {
+		return partida.testeXequeMate(partida.getJogadorAtual());
+	}
+
+	@Benchmark
+	public PecaXadrez[][] getPecas() {
+		return partida.getPecas();
+	}
+
+	@Benchmark
+	public PartidaXadrez copiar() {
+		return new PartidaXadrez(partida);
+	}
+
+}
@@ -0,0 +1,56 @@
+package xadrez;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PecasBenchmark {
+
+	@Param({ "ABERTURA", "MEIO_JOGO", "FINAL" })
+	public CorpusPosicoes posicao;
+
+	@Param({ "PEAO", "CAVALO", "BISPO", "TORRE", "RAINHA", "REI" })
+	public TipoPeca tipo;
+
+	private PecaXadrez[] pecas;
+
+	@Setup
+	public void preparar() {
+		List<PecaXadrez> lista = new ArrayList<>();
+		for (PecaXadrez[] linha : posicao.criar().getPecas()) {
+			for (PecaXadrez p : linha) {
+				if (p != null && p.getTipo() == tipo) {
+					lista.add(p);
+				}
+			}
+		}
+		pecas = lista.toArray(new PecaXadrez[0]);
+	}
+
+	@Benchmark
+	public void possiveisMovimentos(Blackhole bh) {
+		for (PecaXadrez p : pecas) {
+			bh.consume(p.possiveisMovimentos());
+		}
+	}
+
+}
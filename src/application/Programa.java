@@ -1,28 +1,82 @@
 package application;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
 
+import xadrez.Cor;
 import xadrez.PartidaXadrez;
 import xadrez.PecaXadrez;
 import xadrez.PosicaoXadrez;
 import xadrez.XadrezException;
+import xadrez.finais.TabelaFinais;
+import xadrez.motor.BuscaParalela;
+import xadrez.motor.LimitesBusca;
+import xadrez.motor.LivroAberturas;
+import xadrez.motor.ResultadoBusca;
+import xadrez.motor.TabelaTransposicao;
 
 public class Programa {
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
 
 		Scanner sc = new Scanner(System.in);
 		PartidaXadrez partidaXadrez = new PartidaXadrez();
 		List<PecaXadrez> capturadas = new ArrayList<>();
 
-		while (!partidaXadrez.getXequeMate()) {
+		// uso: Programa [brancas|pretas|ambos] [tempo por lance em ms] [threads] [diferencial] [livro=arquivo] [finais=diretorio]
+		LivroAberturas livro = null;
+		TabelaFinais finais = null;
+		List<String> posicionais = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.equalsIgnoreCase("diferencial")) {
+				UI.setModoDiferencial(true);
+			} else if (arg.startsWith("livro=")) {
+				livro = new LivroAberturas(Paths.get(arg.substring(6)));
+			} else if (arg.startsWith("finais=")) {
+				finais = new TabelaFinais(Paths.get(arg.substring(7)));
+			} else {
+				posicionais.add(arg);
+			}
+		}
+		args = posicionais.toArray(new String[0]);
+		String computador = (args.length > 0) ? args[0].toLowerCase() : "";
+		long tempoMs = (args.length > 1) ? Long.parseLong(args[1]) : 1000L;
+		int threads = (args.length > 2) ? Integer.parseInt(args[2]) : 1;
+		TabelaTransposicao tabela = computador.isEmpty() ? null : new TabelaTransposicao(64);
+		BuscaParalela busca = computador.isEmpty() ? null : new BuscaParalela(new PartidaXadrez(), tabela, threads);
+		if (busca != null) {
+			busca.setLivro(livro);
+			busca.setFinais(finais);
+		}
+
+		while (!partidaXadrez.getEstado().isEncerrada()) {
 			try {
 				UI.limparTela();	
 				UI.printPartida(partidaXadrez, capturadas);
+				if (finais != null) {
+					printFinal(finais.sondar(partidaXadrez), partidaXadrez.getJogadorAtual());
+				}
 				System.out.println();
+
+				if (vezDoComputador(computador, partidaXadrez.getJogadorAtual())) {
+					System.out.println("Computador pensando...");
+					busca.setPartida(new PartidaXadrez(partidaXadrez));
+					busca.preparar();
+					ResultadoBusca resultado = busca.buscar(LimitesBusca.porTempo(tempoMs));
+					if (resultado.getMelhorMovimento() == 0) {
+						break;
+					}
+					PecaXadrez pecaCapturada = partidaXadrez.executaMovimento(resultado.getMelhorMovimento());
+					if (pecaCapturada != null) {
+						capturadas.add(pecaCapturada);
+					}
+					continue;
+				}
+
 				System.out.print("Origem: ");
 				PosicaoXadrez origem = UI.lerPosicaoXadrez(sc);
 				
@@ -57,9 +111,29 @@ public class Programa {
 				sc.nextLine();
 			}
 		}
+		if (busca != null) {
+			busca.encerrar();
+		}
 		
 		UI.limparTela();
 		UI.printPartida(partidaXadrez, capturadas);
 	}
 
+	private static void printFinal(int resultado, Cor jogadorAtual) {
+		if (resultado == TabelaFinais.FORA_DA_TABELA) {
+			return;
+		}
+		if (resultado == 0) {
+			System.out.println("Tabela de finais: empate");
+			return;
+		}
+		Cor vencedor = (resultado > 0) ? jogadorAtual : (jogadorAtual == Cor.BRANCO) ? Cor.PRETO : Cor.BRANCO;
+		System.out.println("Tabela de finais: " + vencedor + " da mate em " + (TabelaFinais.distancia(resultado) + 1) / 2 + " lances");
+	}
+
+	private static boolean vezDoComputador(String computador, Cor jogadorAtual) {
+		return computador.equals("ambos") || (computador.equals("brancas") && jogadorAtual == Cor.BRANCO)
+				|| (computador.equals("pretas") && jogadorAtual == Cor.PRETO);
+	}
+
 }
@@ -0,0 +1,89 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import xadrez.servidor.ExecutoresConexao;
+
+public class ProgramaCargaServidor {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("Uso: ProgramaCargaServidor <porta> [clientes] [lances por cliente]");
+			return;
+		}
+		int porta = Integer.parseInt(args[0]);
+		int clientes = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+		int lances = (args.length > 2) ? Integer.parseInt(args[2]) : 40;
+
+		AtomicLong comandos = new AtomicLong();
+		AtomicLong erros = new AtomicLong();
+		ExecutorService executor = ExecutoresConexao.porTarefa("cliente-carga");
+		long inicio = System.nanoTime();
+		List<Future<?>> tarefas = new ArrayList<>();
+		for (int i = 0; i < clientes; i++) {
+			tarefas.add(executor.submit(() -> {
+				try {
+					jogar(porta, lances, comandos);
+				} catch (IOException e) {
+					erros.incrementAndGet();
+				}
+			}));
+		}
+		for (Future<?> tarefa : tarefas) {
+			tarefa.get();
+		}
+		long ms = Math.max(1L, (System.nanoTime() - inicio) / 1_000_000L);
+		executor.shutdown();
+
+		System.out.println("Clientes: " + clientes);
+		System.out.println("Falhas de conexao: " + erros.get());
+		System.out.println("Comandos: " + comandos.get());
+		System.out.println("Tempo: " + ms + " ms");
+		System.out.println("Comandos/s: " + (comandos.get() * 1000L / ms));
+	}
+
+	// cada cliente abre uma partida e joga lances aleatorios pedindo a lista de legais ao servidor
+	private static void jogar(int porta, int lances, AtomicLong comandos) throws IOException {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), porta);
+				BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+				PrintWriter saida = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.ISO_8859_1)) {
+			enviar(saida, entrada, "NOVA", comandos);
+			for (int i = 0; i < lances; i++) {
+				String resposta = enviar(saida, entrada, "MOVIMENTOS", comandos);
+				String[] legais = resposta.substring(2).trim().split(" ");
+				if (legais[0].isEmpty()) {
+					break;
+				}
+				resposta = enviar(saida, entrada, "LANCE " + legais[ThreadLocalRandom.current().nextInt(legais.length)], comandos);
+				if (resposta.contains("XEQUEMATE") || resposta.contains("EMPATE")) {
+					break;
+				}
+			}
+			enviar(saida, entrada, "FIM", comandos);
+			enviar(saida, entrada, "SAIR", comandos);
+		}
+	}
+
+	private static String enviar(PrintWriter saida, BufferedReader entrada, String comando, AtomicLong comandos) throws IOException {
+		saida.println(comando);
+		String resposta = entrada.readLine();
+		if (resposta == null || !resposta.startsWith("OK")) {
+			throw new IOException("Resposta inesperada para " + comando + ": " + resposta);
+		}
+		comandos.incrementAndGet();
+		return resposta;
+	}
+
+}
@@ -0,0 +1,49 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import xadrez.finais.GeradorFinais;
+import xadrez.finais.MaterialFinal;
+
+public class ProgramaFinais {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Uso: ProgramaFinais <diretorio> [threads] [KQK|KRK|KPK|KBNK]...");
+			return;
+		}
+		Path diretorio = Paths.get(args[0]);
+		int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		List<MaterialFinal> materiais = new ArrayList<>();
+		for (int i = 2; i < args.length; i++) {
+			materiais.add(MaterialFinal.valueOf(args[i].toUpperCase()));
+		}
+		if (materiais.isEmpty()) {
+			materiais.addAll(List.of(MaterialFinal.values()));
+		}
+
+		GeradorFinais gerador = new GeradorFinais(threads);
+		for (MaterialFinal material : materiais) {
+			long inicio = System.nanoTime();
+			byte[] codigos = gerador.gerar(material);
+			gerador.gravar(material, diretorio);
+			long ms = Math.max(1L, (System.nanoTime() - inicio) / 1_000_000L);
+
+			long vitorias = 0L;
+			int maximo = 0;
+			for (int i = 0; i < codigos.length; i += 2) {
+				if (codigos[i] > 0) {
+					vitorias++;
+					maximo = Math.max(maximo, codigos[i]);
+				}
+			}
+			System.out.println(material + ": " + vitorias + " vitorias com o lado forte a jogar, mate mais longo em "
+					+ (maximo / 2) + " lances, " + ms + " ms");
+		}
+	}
+
+}
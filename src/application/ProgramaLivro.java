@@ -0,0 +1,28 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import xadrez.pgn.GeradorLivro;
+
+public class ProgramaLivro {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.out.println("Uso: ProgramaLivro <livro.bin> <plies> <partidas.pgn>...");
+			return;
+		}
+		GeradorLivro gerador = new GeradorLivro(Integer.parseInt(args[1]));
+		long inicio = System.nanoTime();
+		for (int i = 2; i < args.length; i++) {
+			gerador.adicionar(Paths.get(args[i]));
+		}
+		gerador.gravar(Paths.get(args[0]));
+		long ms = Math.max(1L, (System.nanoTime() - inicio) / 1_000_000L);
+
+		System.out.println("Partidas: " + gerador.getPartidas());
+		System.out.println("Posicoes: " + gerador.getPosicoes());
+		System.out.println("Tempo: " + ms + " ms");
+	}
+
+}
@@ -0,0 +1,52 @@
+package application;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import xadrez.PartidaXadrez;
+import xadrez.motor.Perft;
+
+public class ProgramaPerft {
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("Uso: ProgramaPerft <profundidade> [threads] [dividir] [fen]");
+			return;
+		}
+		int profundidade = Integer.parseInt(args[0]);
+		int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		boolean dividir = false;
+		StringBuilder fen = new StringBuilder();
+		for (int i = 2; i < args.length; i++) {
+			if (args[i].equalsIgnoreCase("dividir")) {
+				dividir = true;
+			} else {
+				fen.append(args[i]).append(' ');
+			}
+		}
+
+		PartidaXadrez partida = (fen.length() > 0) ? PartidaXadrez.fromFen(fen.toString()) : new PartidaXadrez();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		long inicio = System.nanoTime();
+		long nos;
+		if (dividir) {
+			Map<String, Long> divisao = Perft.dividir(partida, profundidade, pool);
+			nos = 0L;
+			for (Map.Entry<String, Long> e : divisao.entrySet()) {
+				System.out.println(e.getKey() + ": " + e.getValue());
+				nos += e.getValue();
+			}
+			System.out.println();
+		} else {
+			nos = Perft.contarParalelo(partida, profundidade, pool);
+		}
+		long ms = Math.max(1L, (System.nanoTime() - inicio) / 1_000_000L);
+		pool.shutdown();
+
+		System.out.println("Profundidade: " + profundidade);
+		System.out.println("Nos: " + nos);
+		System.out.println("Tempo: " + ms + " ms");
+		System.out.println("Nos/s: " + (nos * 1000L / ms));
+	}
+
+}
@@ -0,0 +1,45 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+import xadrez.pgn.ValidadorPgn;
+
+public class ProgramaPgn {
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 1) {
+			System.out.println("Uso: ProgramaPgn <arquivo.pgn> [threads]");
+			return;
+		}
+		int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		AtomicLong ilegais = new AtomicLong();
+		AtomicLong divergentes = new AtomicLong();
+		AtomicLong lances = new AtomicLong();
+		long inicio = System.nanoTime();
+		long partidas = new ValidadorPgn(threads).validar(Paths.get(args[0]), resultado -> {
+			lances.addAndGet(resultado.getLances());
+			if (!resultado.isLegal()) {
+				ilegais.incrementAndGet();
+			}
+			if (!resultado.isResultadoCoerente()) {
+				divergentes.incrementAndGet();
+			}
+			synchronized (System.out) {
+				System.out.println(resultado);
+			}
+		});
+		long ms = Math.max(1L, (System.nanoTime() - inicio) / 1_000_000L);
+
+		System.out.println();
+		System.out.println("Partidas: " + partidas);
+		System.out.println("Ilegais: " + ilegais.get());
+		System.out.println("Resultados divergentes: " + divergentes.get());
+		System.out.println("Lances: " + lances.get());
+		System.out.println("Tempo: " + ms + " ms");
+		System.out.println("Partidas/s: " + (partidas * 1000L / ms));
+	}
+
+}
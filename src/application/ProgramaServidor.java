@@ -0,0 +1,28 @@
+package application;
+
+import java.io.IOException;
+
+import xadrez.motor.TabelaTransposicao;
+import xadrez.servidor.ExecutoresConexao;
+import xadrez.servidor.RegistroSessoes;
+import xadrez.servidor.ServidorPartidas;
+
+public class ProgramaServidor {
+
+	public static void main(String[] args) throws IOException {
+		// uso: ProgramaServidor [porta] [inatividade em segundos] [tabela em MB]
+		int porta = (args.length > 0) ? Integer.parseInt(args[0]) : 5555;
+		long inatividade = (args.length > 1) ? Long.parseLong(args[1]) : 600L;
+		int megabytes = (args.length > 2) ? Integer.parseInt(args[2]) : 64;
+
+		RegistroSessoes registro = new RegistroSessoes(inatividade * 1000L);
+		try (ServidorPartidas servidor = new ServidorPartidas(porta, registro, new TabelaTransposicao(megabytes))) {
+			System.out.println("Servidor de partidas na porta " + servidor.getPorta()
+					+ (ExecutoresConexao.virtuais() ? " (virtual threads)" : " (threads comuns)"));
+			servidor.executar();
+		} finally {
+			registro.encerrar();
+		}
+	}
+
+}
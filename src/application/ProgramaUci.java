@@ -0,0 +1,373 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+
+import camadaTabuleiro.TabuleiroException;
+import xadrez.Cor;
+import xadrez.ListaMovimentos;
+import xadrez.Movimento;
+import xadrez.PartidaXadrez;
+import xadrez.finais.TabelaFinais;
+import xadrez.motor.Busca;
+import xadrez.motor.BuscaParalela;
+import xadrez.motor.LimitesBusca;
+import xadrez.motor.LivroAberturas;
+import xadrez.motor.ParametrosBusca;
+import xadrez.motor.ResultadoBusca;
+import xadrez.motor.TabelaTransposicao;
+
+public class ProgramaUci {
+
+	private static final int HASH_PADRAO = 64;
+	private static final int HASH_MAXIMO = 4096;
+	private static final int THREADS_MAXIMO = 64;
+	private static final int LANCES_RESTANTES_PADRAO = 30;
+	private static final long MARGEM_MS = 20L;
+
+	private PartidaXadrez partida = new PartidaXadrez();
+	private TabelaTransposicao tabela = new TabelaTransposicao(HASH_PADRAO);
+	private int threads = 1;
+	private LivroAberturas livro;
+	private TabelaFinais finais;
+	private final ParametrosBusca parametros = new ParametrosBusca();
+	private BuscaParalela busca;
+	private Thread pesquisa;
+	// em go infinite e go ponder o bestmove so sai depois de stop ou ponderhit
+	private final Object espera = new Object();
+	private boolean segurarResposta;
+	private long tempoPonder;
+
+	public static void main(String[] args) throws IOException {
+		new ProgramaUci().executar();
+	}
+
+	// a entrada fica nesta thread e a busca em outra, para que stop e isready sejam atendidos durante a busca
+	private void executar() throws IOException {
+		BufferedReader entrada = new BufferedReader(new InputStreamReader(System.in));
+		String linha;
+		while ((linha = entrada.readLine()) != null) {
+			linha = linha.trim();
+			if (linha.isEmpty()) {
+				continue;
+			}
+			String[] campos = linha.split("\\s+");
+			switch (campos[0]) {
+			case "uci":
+				enviar("id name Xadrez");
+				enviar("id author Xadrez");
+				enviar("option name Hash type spin default " + HASH_PADRAO + " min 1 max " + HASH_MAXIMO);
+				enviar("option name Threads type spin default 1 min 1 max " + THREADS_MAXIMO);
+				enviar("option name BookFile type string default <empty>");
+				enviar("option name TablebasePath type string default <empty>");
+				enviar("option name NullMove type check default " + parametros.isMovimentoNulo());
+				enviar("option name LateMoveReductions type check default " + parametros.isReducoesTardias());
+				enviar("option name Futility type check default " + parametros.isFutilidade());
+				enviar("option name ReverseFutility type check default " + parametros.isFutilidadeReversa());
+				enviar("uciok");
+				break;
+			case "isready":
+				enviar("readyok");
+				break;
+			case "setoption":
+				pararBusca();
+				descartarBusca();
+				definirOpcao(campos);
+				break;
+			case "ucinewgame":
+				pararBusca();
+				descartarBusca();
+				tabela.limpar();
+				partida = new PartidaXadrez();
+				break;
+			case "position":
+				pararBusca();
+				definirPosicao(campos);
+				break;
+			case "go":
+				pararBusca();
+				iniciarBusca(campos);
+				break;
+			case "stop":
+				pararBusca();
+				break;
+			case "ponderhit":
+				aceitarPonder();
+				break;
+			case "quit":
+				pararBusca();
+				descartarBusca();
+				return;
+			default:
+				break;
+			}
+		}
+		pararBusca();
+		descartarBusca();
+	}
+
+	private void definirOpcao(String[] campos) {
+		StringBuilder nome = new StringBuilder();
+		String valor = null;
+		for (int i = 1; i < campos.length; i++) {
+			if (campos[i].equals("name")) {
+				continue;
+			}
+			if (campos[i].equals("value") && i + 1 < campos.length) {
+				valor = campos[i + 1];
+				break;
+			}
+			nome.append((nome.length() > 0) ? " " : "").append(campos[i]);
+		}
+		try {
+			if (nome.toString().equalsIgnoreCase("Hash") && valor != null) {
+				tabela = new TabelaTransposicao(Math.max(1, Math.min(Integer.parseInt(valor), HASH_MAXIMO)));
+			} else if (nome.toString().equalsIgnoreCase("Threads") && valor != null) {
+				threads = Math.max(1, Math.min(Integer.parseInt(valor), THREADS_MAXIMO));
+			} else if (nome.toString().equalsIgnoreCase("BookFile")) {
+				if (livro != null) {
+					livro.close();
+				}
+				livro = (valor == null || valor.equals("<empty>")) ? null : new LivroAberturas(Paths.get(valor));
+			} else if (nome.toString().equalsIgnoreCase("TablebasePath")) {
+				if (finais != null) {
+					finais.close();
+				}
+				finais = (valor == null || valor.equals("<empty>")) ? null : new TabelaFinais(Paths.get(valor));
+			} else if (nome.toString().equalsIgnoreCase("NullMove") && valor != null) {
+				parametros.setMovimentoNulo(Boolean.parseBoolean(valor));
+			} else if (nome.toString().equalsIgnoreCase("LateMoveReductions") && valor != null) {
+				parametros.setReducoesTardias(Boolean.parseBoolean(valor));
+			} else if (nome.toString().equalsIgnoreCase("Futility") && valor != null) {
+				parametros.setFutilidade(Boolean.parseBoolean(valor));
+			} else if (nome.toString().equalsIgnoreCase("ReverseFutility") && valor != null) {
+				parametros.setFutilidadeReversa(Boolean.parseBoolean(valor));
+			}
+		} catch (NumberFormatException | IOException e) {
+			if (nome.toString().equalsIgnoreCase("BookFile")) {
+				livro = null;
+			} else if (nome.toString().equalsIgnoreCase("TablebasePath")) {
+				finais = null;
+			}
+			enviar("info string valor invalido para " + nome + ": " + valor);
+		}
+	}
+
+	private void definirPosicao(String[] campos) {
+		int i = 1;
+		PartidaXadrez nova;
+		try {
+			if (i < campos.length && campos[i].equals("fen")) {
+				StringBuilder fen = new StringBuilder();
+				for (i++; i < campos.length && !campos[i].equals("moves"); i++) {
+					fen.append(campos[i]).append(' ');
+				}
+				nova = PartidaXadrez.fromFen(fen.toString());
+			} else {
+				nova = new PartidaXadrez();
+				i++;
+			}
+			// a posicao so troca quando todos os lances forem aceitos; com um ilegal fica a anterior
+			if (i < campos.length && campos[i].equals("moves")) {
+				ListaMovimentos lista = new ListaMovimentos();
+				for (i++; i < campos.length; i++) {
+					int movimento = movimento(nova, campos[i], lista);
+					if (movimento == 0) {
+						enviar("info string lance ilegal: " + campos[i]);
+						return;
+					}
+					nova.fazerMovimento(movimento);
+				}
+			}
+			partida = nova;
+		} catch (TabuleiroException | IllegalStateException e) {
+			enviar("info string posicao invalida: " + e.getMessage());
+		}
+	}
+
+	private static int movimento(PartidaXadrez partida, String texto, ListaMovimentos lista) {
+		int total = partida.gerarMovimentosLegais(lista);
+		for (int i = 0; i < total; i++) {
+			if (Movimento.paraTexto(lista.get(i)).equals(texto)) {
+				return lista.get(i);
+			}
+		}
+		return 0;
+	}
+
+	private void iniciarBusca(String[] campos) {
+		int profundidade = 0;
+		long nos = 0L;
+		long tempo = 0L;
+		long tempoLance = 0L;
+		long restante = -1L;
+		long incremento = 0L;
+		int lancesRestantes = 0;
+		boolean infinita = false;
+		boolean ponder = false;
+		boolean brancas = partida.getJogadorAtual() == Cor.BRANCO;
+		try {
+			for (int i = 1; i < campos.length; i++) {
+				switch (campos[i]) {
+				case "infinite":
+					infinita = true;
+					break;
+				case "ponder":
+					ponder = true;
+					break;
+				case "depth":
+					profundidade = Integer.parseInt(campos[++i]);
+					break;
+				case "nodes":
+					nos = Long.parseLong(campos[++i]);
+					break;
+				case "movetime":
+					tempoLance = Long.parseLong(campos[++i]);
+					break;
+				case "wtime":
+				case "btime":
+					if (campos[i].equals(brancas ? "wtime" : "btime")) {
+						restante = Long.parseLong(campos[i + 1]);
+					}
+					i++;
+					break;
+				case "winc":
+				case "binc":
+					if (campos[i].equals(brancas ? "winc" : "binc")) {
+						incremento = Long.parseLong(campos[i + 1]);
+					}
+					i++;
+					break;
+				case "movestogo":
+					lancesRestantes = Integer.parseInt(campos[++i]);
+					break;
+				default:
+					break;
+				}
+			}
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			enviar("info string parametro invalido em go");
+		}
+
+		if (tempoLance > 0) {
+			tempo = Math.max(1L, tempoLance - MARGEM_MS);
+		} else if (restante >= 0) {
+			int lances = (lancesRestantes > 0) ? lancesRestantes : LANCES_RESTANTES_PADRAO;
+			tempo = Math.max(1L, Math.min(restante / lances + incremento / 2, restante / 2) - MARGEM_MS);
+		}
+		// ponderando, o relogio so comeca a contar no ponderhit; ate la a busca nao tem limite de tempo
+		tempoPonder = ponder ? tempo : 0L;
+		LimitesBusca limites = (infinita || ponder) ? new LimitesBusca(profundidade, nos, 0L) : new LimitesBusca(profundidade, nos, tempo);
+
+		if (busca == null) {
+			busca = new BuscaParalela(new PartidaXadrez(partida), tabela, threads);
+			busca.setOuvinte(this::informar);
+		} else {
+			busca.setPartida(new PartidaXadrez(partida));
+		}
+		BuscaParalela atual = busca;
+		atual.setLivro(livro);
+		atual.setFinais(finais);
+		atual.setParametros(parametros);
+		atual.preparar();
+		synchronized (espera) {
+			segurarResposta = infinita || ponder;
+		}
+		pesquisa = new Thread(() -> {
+			ResultadoBusca resultado = atual.buscar(limites);
+			try {
+				synchronized (espera) {
+					while (segurarResposta) {
+						espera.wait();
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			int melhor = resultado.getMelhorMovimento();
+			enviar("bestmove " + ((melhor == 0) ? "0000" : Movimento.paraTexto(melhor)));
+		}, "busca-uci");
+		pesquisa.start();
+	}
+
+	private void liberarResposta() {
+		synchronized (espera) {
+			segurarResposta = false;
+			espera.notifyAll();
+		}
+	}
+
+	// o adversario jogou o lance esperado: a busca segue e passa a valer o tempo do go ponder
+	private void aceitarPonder() {
+		Thread t = pesquisa;
+		if (t == null) {
+			return;
+		}
+		liberarResposta();
+		long tempo = tempoPonder;
+		BuscaParalela atual = busca;
+		if (tempo > 0) {
+			Thread relogio = new Thread(() -> {
+				try {
+					t.join(tempo);
+				} catch (InterruptedException e) {
+					return;
+				}
+				if (t.isAlive()) {
+					atual.parar();
+				}
+			}, "relogio-ponder");
+			relogio.setDaemon(true);
+			relogio.start();
+		}
+	}
+
+	// pool de threads da busca vale ate o proximo ucinewgame ou setoption (Hash e Threads a recriam)
+	private void descartarBusca() {
+		if (busca != null) {
+			busca.encerrar();
+			busca = null;
+		}
+	}
+
+	private void pararBusca() {
+		Thread t = pesquisa;
+		if (t == null) {
+			return;
+		}
+		// a parada ja foi armada antes da thread sair, entao um pedido basta
+		busca.parar();
+		liberarResposta();
+		try {
+			t.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		pesquisa = null;
+	}
+
+	private void informar(ResultadoBusca r) {
+		StringBuilder sb = new StringBuilder("info depth ").append(r.getProfundidade()).append(" score ");
+		int valor = r.getValor();
+		if (Math.abs(valor) >= Busca.MATE - Busca.PLY_MAXIMO) {
+			int plies = Busca.MATE - Math.abs(valor);
+			sb.append("mate ").append((valor > 0) ? (plies + 1) / 2 : -(plies + 1) / 2);
+		} else {
+			sb.append("cp ").append(valor);
+		}
+		long ms = Math.max(1L, r.getTempoMs());
+		sb.append(" nodes ").append(r.getNos()).append(" nps ").append(r.getNos() * 1000L / ms).append(" time ").append(r.getTempoMs());
+		if (r.getPv().length > 0) {
+			sb.append(" pv ").append(r.pvTexto());
+		}
+		enviar(sb.toString());
+	}
+
+	private static synchronized void enviar(String linha) {
+		System.out.println(linha);
+		System.out.flush();
+	}
+
+}
@@ -1,12 +1,11 @@
 package application;
 
-import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
-import java.util.stream.Collectors;
 
 import xadrez.Cor;
+import xadrez.EstadoPartida;
 import xadrez.PartidaXadrez;
 import xadrez.PecaXadrez;
 import xadrez.PosicaoXadrez;
@@ -34,10 +33,39 @@ public class UI {
 	public static final String ANSI_CYAN_BACKGROUND = "\u001B[46m";
 	public static final String ANSI_WHITE_BACKGROUND = "\u001B[47m";
 
+	private static final String ANSI_LIMPAR = "\033[H\033[2J";
+	private static final String ANSI_INICIO = "\033[H";
+	private static final String ANSI_LIMPAR_ABAIXO = "\033[J";
+	private static final int LINHA_APOS_TABULEIRO = 11;
+
+	// cada quadro eh montado aqui e enviado ao terminal numa unica escrita
+	private static final StringBuilder QUADRO = new StringBuilder(4096);
+
+	private static boolean modoDiferencial;
+	private static int[][] ultimoQuadro;
+	private static boolean telaLimpa;
+
+	public static void setModoDiferencial(boolean ativo) {
+		modoDiferencial = ativo;
+		ultimoQuadro = null;
+	}
+
 	// https://stackoverflow.com/questions/2979383/java-clear-the-console
 	public static void limparTela() {
-		System.out.println("\033[H\033[2J");
+		if (modoDiferencial && ultimoQuadro != null) {
+			QUADRO.append(ANSI_INICIO);
+		} else {
+			QUADRO.append(ANSI_LIMPAR).append('\n');
+			ultimoQuadro = null;
+		}
+		telaLimpa = true;
+	}
+
+	private static void enviarQuadro() {
+		System.out.print(QUADRO);
 		System.out.flush();
+		QUADRO.setLength(0);
+		telaLimpa = false;
 	}
 
 	public static PosicaoXadrez lerPosicaoXadrez(Scanner sc) {
@@ -52,73 +80,126 @@ public class UI {
 	}
 
 	public static void printPartida(PartidaXadrez partidaXadrez, List<PecaXadrez> capturadas) {
-		printTabuleiro(partidaXadrez.getPecas());
-		System.out.println();
+		desenharTabuleiro(partidaXadrez.getPecas(), null);
+		QUADRO.append('\n');
 		printPecasCapturadas(capturadas);
-		System.out.println();
-		System.out.println("Turno: " + partidaXadrez.getTurno());
-		if (!partidaXadrez.getXequeMate()) {
-			System.out.println("Aguardando jogador: " + partidaXadrez.getJogadorAtual());
+		QUADRO.append('\n');
+		QUADRO.append("Turno: ").append(partidaXadrez.getTurno()).append('\n');
+		EstadoPartida estado = partidaXadrez.getEstado();
+		if (estado == EstadoPartida.EM_ANDAMENTO) {
+			QUADRO.append("Aguardando jogador: ").append(partidaXadrez.getJogadorAtual()).append('\n');
 			if (partidaXadrez.getXeque()) {
-				System.out.println("XEQUE!");
+				QUADRO.append("XEQUE!\n");
 			}
+		} else if (estado == EstadoPartida.XEQUE_MATE) {
+			QUADRO.append("XEQUE-MATE!\n");
+			QUADRO.append("Vencedor: ").append(partidaXadrez.getVencedor()).append('\n');
 		} else {
-			System.out.println("XEQUE-MATE!");
-			System.out.println("Vencedor: " + partidaXadrez.getJogadorAtual());
+			QUADRO.append("EMPATE! (").append(descricaoEmpate(estado)).append(")\n");
 		}
-		
+		enviarQuadro();
 	}
 
-	public static void printTabuleiro(PecaXadrez[][] pecas) {
-		for (int i = 0; i < pecas.length; i++) {
-			System.out.print((8 - i) + " ");
-			for (int j = 0; j < pecas.length; j++) {
-				printPeca(pecas[i][j], false);
-			}
-			System.out.println();
+	private static String descricaoEmpate(EstadoPartida estado) {
+		switch (estado) {
+		case AFOGAMENTO:
+			return "afogamento";
+		case REPETICAO:
+			return "repeticao tripla";
+		case CINQUENTA_LANCES:
+			return "regra dos cinquenta lances";
+		default:
+			return "material insuficiente";
 		}
-		System.out.println("  a b c d e f g h");
+	}
+
+	public static void printTabuleiro(PecaXadrez[][] pecas) {
+		desenharTabuleiro(pecas, null);
+		enviarQuadro();
 	}
 
 	public static void printTabuleiro(PecaXadrez[][] pecas, boolean[][] possiveisMovimentos) {
+		desenharTabuleiro(pecas, possiveisMovimentos);
+		enviarQuadro();
+	}
+
+	// no modo diferencial, logo apos limparTela, so as casas que mudaram desde o ultimo quadro sao reescritas
+	private static void desenharTabuleiro(PecaXadrez[][] pecas, boolean[][] possiveisMovimentos) {
+		boolean diferencial = modoDiferencial && telaLimpa && ultimoQuadro != null;
+		if (ultimoQuadro == null) {
+			ultimoQuadro = new int[pecas.length][pecas.length];
+		}
 		for (int i = 0; i < pecas.length; i++) {
-			System.out.print((8 - i) + " ");
+			if (!diferencial) {
+				QUADRO.append(8 - i).append(' ');
+			}
 			for (int j = 0; j < pecas.length; j++) {
-				printPeca(pecas[i][j], possiveisMovimentos[i][j]);
+				boolean fundo = possiveisMovimentos != null && possiveisMovimentos[i][j];
+				int codigo = codigoCasa(pecas[i][j], fundo);
+				if (diferencial) {
+					if (ultimoQuadro[i][j] != codigo) {
+						// +1 da linha em branco deixada por limparTela
+						QUADRO.append("\033[").append(i + 2).append(';').append(3 + 2 * j).append('H');
+						printPeca(pecas[i][j], fundo);
+					}
+				} else {
+					printPeca(pecas[i][j], fundo);
+					QUADRO.append(' ');
+				}
+				ultimoQuadro[i][j] = codigo;
 			}
-			System.out.println();
+			if (!diferencial) {
+				QUADRO.append('\n');
+			}
+		}
+		if (diferencial) {
+			QUADRO.append("\033[").append(LINHA_APOS_TABULEIRO).append(";1H").append(ANSI_LIMPAR_ABAIXO);
+		} else {
+			QUADRO.append("  a b c d e f g h\n");
 		}
-		System.out.println("  a b c d e f g h");
+		telaLimpa = false;
+	}
+
+	private static int codigoCasa(PecaXadrez peca, boolean fundo) {
+		int codigo = (fundo) ? 1 << 16 : 0;
+		if (peca != null) {
+			codigo |= (peca.getCor().ordinal() + 1) << 8 | peca.toString().charAt(0);
+		}
+		return codigo;
 	}
 
 	private static void printPeca(PecaXadrez peca, boolean background) {
 		if (background) {
-			System.out.print(ANSI_BLUE_BACKGROUND);
+			QUADRO.append(ANSI_BLUE_BACKGROUND);
 		}
 		if (peca == null) {
-			System.out.print("-" + ANSI_RESET);
+			QUADRO.append('-');
 		} else {
-			if (peca.getCor() == Cor.BRANCO) {
-				System.out.print(ANSI_WHITE + peca + ANSI_RESET);
-			} else {
-				System.out.print(ANSI_YELLOW + peca + ANSI_RESET);
-			}
+			QUADRO.append((peca.getCor() == Cor.BRANCO) ? ANSI_WHITE : ANSI_YELLOW).append(peca);
 		}
-		System.out.print(" ");
+		QUADRO.append(ANSI_RESET);
 	}
 
 	private static void printPecasCapturadas(List<PecaXadrez> capturadas) {
-		List<PecaXadrez> branco = capturadas.stream().filter(x -> x.getCor() == Cor.BRANCO).collect(Collectors.toList());
-		List<PecaXadrez> preto = capturadas.stream().filter(x -> x.getCor() == Cor.PRETO).collect(Collectors.toList());
-		System.out.println("Pecas capturadas:");
-		System.out.print("Brancas: ");
-		System.out.print(ANSI_WHITE);
-		System.out.println(Arrays.toString(branco.toArray()));
-		System.out.print(ANSI_RESET);
-		System.out.print("Pretas: ");
-		System.out.print(ANSI_YELLOW);
-		System.out.println(Arrays.toString(preto.toArray()));
-		System.out.print(ANSI_RESET);
+		QUADRO.append("Pecas capturadas:\n");
+		QUADRO.append("Brancas: ").append(ANSI_WHITE);
+		listarCapturadas(capturadas, Cor.BRANCO);
+		QUADRO.append(ANSI_RESET);
+		QUADRO.append("Pretas: ").append(ANSI_YELLOW);
+		listarCapturadas(capturadas, Cor.PRETO);
+		QUADRO.append(ANSI_RESET);
+	}
+
+	private static void listarCapturadas(List<PecaXadrez> capturadas, Cor cor) {
+		QUADRO.append('[');
+		boolean primeira = true;
+		for (PecaXadrez p : capturadas) {
+			if (p.getCor() == cor) {
+				QUADRO.append(primeira ? "" : ", ").append(p);
+				primeira = false;
+			}
+		}
+		QUADRO.append("]\n");
 	}
 
 }
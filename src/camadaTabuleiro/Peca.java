@@ -13,6 +13,14 @@ public abstract class Peca {
 	protected Tabuleiro getTabuleiro() {
 		return tabuleiro;
 	}
+
+	protected int indiceBitboard() {
+		return -1;
+	}
+
+	protected int grupoBitboard() {
+		return -1;
+	}
 	
 	public abstract boolean[][] possiveisMovimentos();
 	
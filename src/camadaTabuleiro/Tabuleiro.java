@@ -6,6 +6,14 @@ public class Tabuleiro {
 	private int colunas;
 	private Peca[][] pecas;
 
+	private static final int MAX_BITBOARDS = 16;
+	private static final int MAX_GRUPOS = 4;
+
+	private boolean modoBitboard;
+	private long[] bitboards = new long[MAX_BITBOARDS];
+	private long[] grupos = new long[MAX_GRUPOS];
+	private long ocupacao;
+
 	public Tabuleiro(int linhas, int colunas) {
 		if (linhas < 1 || colunas < 1) {
 			throw new TabuleiroException("Erro ao criar o tabuleiro! Eh necessario que haja 1 linha e 1 coluna");
@@ -13,6 +21,7 @@ public class Tabuleiro {
 		this.linhas = linhas;
 		this.colunas = colunas;
 		pecas = new Peca[linhas][colunas];
+		modoBitboard = linhas * colunas <= 64;
 	}
 
 	public int getLinhas() {
@@ -23,6 +32,34 @@ public class Tabuleiro {
 		return colunas;
 	}
 
+	public boolean getModoBitboard() {
+		return modoBitboard;
+	}
+
+	public long getOcupacao() {
+		return ocupacao;
+	}
+
+	public long bitboard(int indice) {
+		return bitboards[indice];
+	}
+
+	public long ocupacaoGrupo(int grupo) {
+		return grupos[grupo];
+	}
+
+	public int casa(int linha, int coluna) {
+		return linha * colunas + coluna;
+	}
+
+	public int casa(Posicao posicao) {
+		return casa(posicao.getLinha(), posicao.getColuna());
+	}
+
+	public Peca pecaCasa(int casa) {
+		return pecas[casa / colunas][casa % colunas];
+	}
+
 	public Peca peca(int linha, int coluna) {
 		if (!posicaoExiste(linha, coluna)) {
 			throw new TabuleiroException("Nao existe essa posicao no tabuleiro!");
@@ -43,6 +80,23 @@ public class Tabuleiro {
 		}
 		pecas[posicao.getLinha()][posicao.getColuna()] = peca;
 		peca.posicao = posicao;
+		marcarBitboards(peca, casa(posicao));
+	}
+
+	private void marcarBitboards(Peca peca, int casa) {
+		if (!modoBitboard) {
+			return;
+		}
+		long bit = 1L << casa;
+		ocupacao ^= bit;
+		int indice = peca.indiceBitboard();
+		if (indice >= 0) {
+			bitboards[indice] ^= bit;
+		}
+		int grupo = peca.grupoBitboard();
+		if (grupo >= 0) {
+			grupos[grupo] ^= bit;
+		}
 	}
 
 	private boolean posicaoExiste(int linha, int coluna) {
@@ -61,6 +115,7 @@ public class Tabuleiro {
 		Peca aux = peca(posicao);
 		aux.posicao = null;
 		pecas[posicao.getLinha()][posicao.getColuna()] = null;
+		marcarBitboards(aux, casa(posicao));
 
 		return aux;
 	}
@@ -73,6 +128,9 @@ public class Tabuleiro {
 		if (!posicaoExiste(posicao)) {
 			throw new TabuleiroException("No existe essa posio no tabuleiro!");
 		}
+		if (modoBitboard) {
+			return (ocupacao & (1L << casa(posicao))) != 0;
+		}
 		return peca(posicao) != null;
 	}
 
@@ -0,0 +1,232 @@
+package xadrez;
+
+public final class Ataques {
+
+	private static final long[] CAVALO = new long[64];
+	private static final long[] REI = new long[64];
+	private static final long[][] PEAO = new long[2][64];
+
+	private static final int[][] DIRECOES_TORRE = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+	private static final int[][] DIRECOES_BISPO = { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+
+	private static final long[][] ENTRE = new long[64][64];
+	private static final long[][] LINHA = new long[64][64];
+
+	private static final long[] MASCARA_TORRE = new long[64];
+	private static final long[] MAGICO_TORRE = new long[64];
+	private static final int[] DESLOCAMENTO_TORRE = new int[64];
+	private static final long[][] TABELA_TORRE = new long[64][];
+
+	private static final long[] MASCARA_BISPO = new long[64];
+	private static final long[] MAGICO_BISPO = new long[64];
+	private static final int[] DESLOCAMENTO_BISPO = new int[64];
+	private static final long[][] TABELA_BISPO = new long[64][];
+
+	private static final long[] MAGICOS_TORRE_PRONTOS = {
+			0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+			0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+			0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+			0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+			0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+			0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+			0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+			0x0050500500080100L, 0x0000020080040080L, 0x0C10010400420810L, 0x1040008200005104L,
+			0x01808240088004A0L, 0x0882804004802000L, 0x0880402001001100L, 0x2000210409001000L,
+			0x2000480131001500L, 0x0000800400800200L, 0x000002380C001003L, 0x4600084882000431L,
+			0x0080002000504000L, 0x0300500020004002L, 0x0040408200220011L, 0x0010040008004040L,
+			0x0000080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+			0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+			0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+			0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+			0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+	};
+
+	private static final long[] MAGICOS_BISPO_PRONTOS = {
+			0x20C0090901061081L, 0x0024040094030104L, 0x8210810200290200L, 0x0011040484620000L,
+			0x0081104002221000L, 0x0009012011001350L, 0x0081010802400380L, 0x0000420210010408L,
+			0x0008105002280050L, 0x0001028484040044L, 0x2A00880810408804L, 0x7020022282000100L,
+			0x0084040420100A50L, 0x000401010840E000L, 0x2020020210420888L, 0x0008084202012010L,
+			0x2010400810018800L, 0x0445122008020840L, 0x0804100808002008L, 0x0008002104110100L,
+			0x0061005820080800L, 0x2001000200820100L, 0x480C210084010800L, 0x3004442500480420L,
+			0x1010102240048100L, 0x00182009084220A3L, 0x8803090A10004205L, 0x0208080040202020L,
+			0x000C044084010040L, 0x00A1010002004106L, 0x6008210020640202L, 0x1600902112860801L,
+			0x00042008C1220200L, 0x010C042002440140L, 0x5022080200040820L, 0x0402004042940100L,
+			0x0860108400008020L, 0x000C080022021000L, 0x0264080652822100L, 0x4005031221010401L,
+			0x0004502410008400L, 0x000500B010A20400L, 0x0415094050080800L, 0x080000201800A104L,
+			0x4022A80304000110L, 0x4012140802028020L, 0x40200104010100A0L, 0x12810806008B0C41L,
+			0x0020441008080000L, 0x2002120084045420L, 0x0704020062080002L, 0x0000001084040001L,
+			0x0322200891240200L, 0xF040200210024800L, 0x0140824832008042L, 0x000210020A004602L,
+			0x0083042805141020L, 0x002C12009A011000L, 0x0041A00044140400L, 0x00004004020A0202L,
+			0x0000140010020210L, 0x2864160811012200L, 0x2060080841082A17L, 0xA010041108003100L
+	};
+
+	private static long semente = 0x9E3779B97F4A7C15L;
+
+	static {
+		int[][] saltosCavalo = { { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 }, { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 } };
+		int[][] saltosRei = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 }, { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+		for (int casa = 0; casa < 64; casa++) {
+			CAVALO[casa] = saltos(casa, saltosCavalo);
+			REI[casa] = saltos(casa, saltosRei);
+			PEAO[Cor.BRANCO.ordinal()][casa] = saltos(casa, new int[][] { { -1, -1 }, { -1, 1 } });
+			PEAO[Cor.PRETO.ordinal()][casa] = saltos(casa, new int[][] { { 1, -1 }, { 1, 1 } });
+		}
+		for (int casa = 0; casa < 64; casa++) {
+			iniciarLinhas(casa, DIRECOES_TORRE);
+			iniciarLinhas(casa, DIRECOES_BISPO);
+		}
+		for (int casa = 0; casa < 64; casa++) {
+			iniciarMagico(casa, DIRECOES_TORRE, MAGICOS_TORRE_PRONTOS[casa], MASCARA_TORRE, MAGICO_TORRE, DESLOCAMENTO_TORRE,
+					TABELA_TORRE);
+			iniciarMagico(casa, DIRECOES_BISPO, MAGICOS_BISPO_PRONTOS[casa], MASCARA_BISPO, MAGICO_BISPO, DESLOCAMENTO_BISPO,
+					TABELA_BISPO);
+		}
+	}
+
+	private Ataques() {
+	}
+
+	public static long cavalo(int casa) {
+		return CAVALO[casa];
+	}
+
+	public static long rei(int casa) {
+		return REI[casa];
+	}
+
+	public static long peao(Cor cor, int casa) {
+		return PEAO[cor.ordinal()][casa];
+	}
+
+	public static long torre(int casa, long ocupacao) {
+		return TABELA_TORRE[casa][(int) (((ocupacao & MASCARA_TORRE[casa]) * MAGICO_TORRE[casa]) >>> DESLOCAMENTO_TORRE[casa])];
+	}
+
+	public static long bispo(int casa, long ocupacao) {
+		return TABELA_BISPO[casa][(int) (((ocupacao & MASCARA_BISPO[casa]) * MAGICO_BISPO[casa]) >>> DESLOCAMENTO_BISPO[casa])];
+	}
+
+	public static long rainha(int casa, long ocupacao) {
+		return torre(casa, ocupacao) | bispo(casa, ocupacao);
+	}
+
+	public static long entre(int origem, int destino) {
+		return ENTRE[origem][destino];
+	}
+
+	public static long linha(int origem, int destino) {
+		return LINHA[origem][destino];
+	}
+
+	private static long saltos(int casa, int[][] deslocamentos) {
+		long bits = 0L;
+		for (int[] d : deslocamentos) {
+			int linha = Bitboards.linha(casa) + d[0];
+			int coluna = Bitboards.coluna(casa) + d[1];
+			if (linha >= 0 && linha < 8 && coluna >= 0 && coluna < 8) {
+				bits |= Bitboards.bit(Bitboards.casa(linha, coluna));
+			}
+		}
+		return bits;
+	}
+
+	private static long raios(int casa, int[][] direcoes, long ocupacao) {
+		long bits = 0L;
+		for (int[] d : direcoes) {
+			int linha = Bitboards.linha(casa) + d[0];
+			int coluna = Bitboards.coluna(casa) + d[1];
+			while (linha >= 0 && linha < 8 && coluna >= 0 && coluna < 8) {
+				long bit = Bitboards.bit(Bitboards.casa(linha, coluna));
+				bits |= bit;
+				if ((ocupacao & bit) != 0) {
+					break;
+				}
+				linha += d[0];
+				coluna += d[1];
+			}
+		}
+		return bits;
+	}
+
+	private static void iniciarLinhas(int casa, int[][] direcoes) {
+		for (int[] d : direcoes) {
+			long reta = Bitboards.bit(casa) | raios(casa, new int[][] { d, { -d[0], -d[1] } }, 0L);
+			long caminho = 0L;
+			int linha = Bitboards.linha(casa) + d[0];
+			int coluna = Bitboards.coluna(casa) + d[1];
+			while (linha >= 0 && linha < 8 && coluna >= 0 && coluna < 8) {
+				int destino = Bitboards.casa(linha, coluna);
+				ENTRE[casa][destino] = caminho;
+				LINHA[casa][destino] = reta;
+				caminho |= Bitboards.bit(destino);
+				linha += d[0];
+				coluna += d[1];
+			}
+		}
+	}
+
+	private static long mascara(int casa, int[][] direcoes) {
+		long bits = 0L;
+		for (int[] d : direcoes) {
+			int linha = Bitboards.linha(casa) + d[0];
+			int coluna = Bitboards.coluna(casa) + d[1];
+			while (linha + d[0] >= 0 && linha + d[0] < 8 && coluna + d[1] >= 0 && coluna + d[1] < 8) {
+				bits |= Bitboards.bit(Bitboards.casa(linha, coluna));
+				linha += d[0];
+				coluna += d[1];
+			}
+		}
+		return bits;
+	}
+
+	private static void iniciarMagico(int casa, int[][] direcoes, long pronto, long[] mascaras, long[] magicos,
+			int[] deslocamentos, long[][] tabelas) {
+		long mascara = mascara(casa, direcoes);
+		int bits = Long.bitCount(mascara);
+		int tamanho = 1 << bits;
+		long[] ocupacoes = new long[tamanho];
+		long[] ataques = new long[tamanho];
+		long subconjunto = 0L;
+		for (int i = 0; i < tamanho; i++) {
+			ocupacoes[i] = subconjunto;
+			ataques[i] = raios(casa, direcoes, subconjunto);
+			subconjunto = (subconjunto - mascara) & mascara;
+		}
+
+		long[] tabela = new long[tamanho];
+		int[] usado = new int[tamanho];
+		int tentativa = 0;
+		while (true) {
+			tentativa++;
+			long magico = (tentativa == 1) ? pronto : aleatorio() & aleatorio() & aleatorio();
+			if (Long.bitCount((mascara * magico) & 0xFF00000000000000L) < 6) {
+				continue;
+			}
+			boolean falhou = false;
+			for (int i = 0; i < tamanho && !falhou; i++) {
+				int indice = (int) ((ocupacoes[i] * magico) >>> (64 - bits));
+				if (usado[indice] != tentativa) {
+					usado[indice] = tentativa;
+					tabela[indice] = ataques[i];
+				} else if (tabela[indice] != ataques[i]) {
+					falhou = true;
+				}
+			}
+			if (!falhou) {
+				mascaras[casa] = mascara;
+				magicos[casa] = magico;
+				deslocamentos[casa] = 64 - bits;
+				tabelas[casa] = tabela;
+				return;
+			}
+		}
+	}
+
+	private static long aleatorio() {
+		semente ^= semente >>> 12;
+		semente ^= semente << 25;
+		semente ^= semente >>> 27;
+		return semente * 0x2545F4914F6CDD1DL;
+	}
+
+}
@@ -0,0 +1,48 @@
+package xadrez;
+
+import camadaTabuleiro.Posicao;
+
+public final class Bitboards {
+
+	private Bitboards() {
+	}
+
+	public static int indice(TipoPeca tipo, Cor cor) {
+		return tipo.ordinal() * 2 + cor.ordinal();
+	}
+
+	public static int casa(int linha, int coluna) {
+		return linha * 8 + coluna;
+	}
+
+	public static int casa(Posicao posicao) {
+		return casa(posicao.getLinha(), posicao.getColuna());
+	}
+
+	public static int linha(int casa) {
+		return casa >>> 3;
+	}
+
+	public static int coluna(int casa) {
+		return casa & 7;
+	}
+
+	public static long bit(int casa) {
+		return 1L << casa;
+	}
+
+	public static boolean contem(long bits, int casa) {
+		return (bits & (1L << casa)) != 0;
+	}
+
+	public static boolean[][] paraMatriz(long bits) {
+		boolean[][] mat = new boolean[8][8];
+		while (bits != 0) {
+			int casa = Long.numberOfTrailingZeros(bits);
+			mat[linha(casa)][coluna(casa)] = true;
+			bits &= bits - 1;
+		}
+		return mat;
+	}
+
+}
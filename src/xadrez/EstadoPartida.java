@@ -0,0 +1,19 @@
+package xadrez;
+
+public enum EstadoPartida {
+
+	EM_ANDAMENTO,
+	XEQUE_MATE,
+	AFOGAMENTO,
+	REPETICAO,
+	CINQUENTA_LANCES,
+	MATERIAL_INSUFICIENTE;
+
+	public boolean isEncerrada() {
+		return this != EM_ANDAMENTO;
+	}
+
+	public boolean isEmpate() {
+		return this != EM_ANDAMENTO && this != XEQUE_MATE;
+	}
+}
@@ -0,0 +1,40 @@
+package xadrez;
+
+import java.util.Arrays;
+
+final class IndicePecas {
+
+	private static final int CAPACIDADE = 10;
+
+	private final PecaXadrez[][] pecas = new PecaXadrez[TipoPeca.values().length * 2][CAPACIDADE];
+	private final int[] quantidades = new int[TipoPeca.values().length * 2];
+
+	void adicionar(PecaXadrez p) {
+		int i = p.indiceBitboard();
+		if (quantidades[i] == pecas[i].length) {
+			pecas[i] = Arrays.copyOf(pecas[i], quantidades[i] * 2);
+		}
+		p.setIndiceLista(quantidades[i]);
+		pecas[i][quantidades[i]++] = p;
+	}
+
+	// troca com a ultima: remocao em tempo constante, a ordem dentro do tipo nao eh preservada
+	void remover(PecaXadrez p) {
+		int i = p.indiceBitboard();
+		int posicao = p.getIndiceLista();
+		PecaXadrez ultima = pecas[i][--quantidades[i]];
+		pecas[i][posicao] = ultima;
+		ultima.setIndiceLista(posicao);
+		pecas[i][quantidades[i]] = null;
+		p.setIndiceLista(-1);
+	}
+
+	int quantidade(TipoPeca tipo, Cor cor) {
+		return quantidades[Bitboards.indice(tipo, cor)];
+	}
+
+	PecaXadrez get(TipoPeca tipo, Cor cor, int indice) {
+		return pecas[Bitboards.indice(tipo, cor)][indice];
+	}
+
+}
@@ -0,0 +1,49 @@
+package xadrez;
+
+public class ListaMovimentos {
+
+	public static final int CAPACIDADE_PADRAO = 256;
+
+	private int[] movimentos;
+	private int tamanho;
+
+	public ListaMovimentos() {
+		this(CAPACIDADE_PADRAO);
+	}
+
+	public ListaMovimentos(int capacidade) {
+		movimentos = new int[capacidade];
+	}
+
+	public int getTamanho() {
+		return tamanho;
+	}
+
+	public int get(int indice) {
+		return movimentos[indice];
+	}
+
+	public void adicionar(int movimento) {
+		movimentos[tamanho++] = movimento;
+	}
+
+	public void trocar(int i, int j) {
+		int aux = movimentos[i];
+		movimentos[i] = movimentos[j];
+		movimentos[j] = aux;
+	}
+
+	public void limpar() {
+		tamanho = 0;
+	}
+
+	public boolean contem(int movimento) {
+		for (int i = 0; i < tamanho; i++) {
+			if (movimentos[i] == movimento) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,70 @@
+package xadrez;
+
+public final class Movimento {
+
+	public static final int NENHUM = 0;
+
+	public static final int CAPTURA = 1;
+	public static final int EN_PASSANT = 2;
+	public static final int ROQUE = 4;
+	public static final int PROMOCAO = 8;
+
+	private static final TipoPeca[] TIPOS = TipoPeca.values();
+
+	private Movimento() {
+	}
+
+	public static int criar(int origem, int destino, int flags) {
+		return origem | (destino << 6) | (flags << 12);
+	}
+
+	public static int criar(int origem, int destino, int flags, TipoPeca promocao) {
+		return criar(origem, destino, flags | PROMOCAO) | (promocao.ordinal() << 16);
+	}
+
+	public static int origem(int movimento) {
+		return movimento & 0x3F;
+	}
+
+	public static int destino(int movimento) {
+		return (movimento >>> 6) & 0x3F;
+	}
+
+	public static int flags(int movimento) {
+		return (movimento >>> 12) & 0xF;
+	}
+
+	public static boolean captura(int movimento) {
+		return (flags(movimento) & CAPTURA) != 0;
+	}
+
+	public static boolean enPassant(int movimento) {
+		return (flags(movimento) & EN_PASSANT) != 0;
+	}
+
+	public static boolean roque(int movimento) {
+		return (flags(movimento) & ROQUE) != 0;
+	}
+
+	public static TipoPeca promocao(int movimento) {
+		if ((flags(movimento) & PROMOCAO) == 0) {
+			return null;
+		}
+		return TIPOS[(movimento >>> 16) & 0x7];
+	}
+
+	public static String casaParaTexto(int casa) {
+		return "" + (char) ('a' + Bitboards.coluna(casa)) + (8 - Bitboards.linha(casa));
+	}
+
+	public static String paraTexto(int movimento) {
+		String texto = casaParaTexto(origem(movimento)) + casaParaTexto(destino(movimento));
+		TipoPeca promocao = promocao(movimento);
+		if (promocao == TipoPeca.RAINHA) return texto + "q";
+		if (promocao == TipoPeca.TORRE) return texto + "r";
+		if (promocao == TipoPeca.BISPO) return texto + "b";
+		if (promocao == TipoPeca.CAVALO) return texto + "n";
+		return texto;
+	}
+
+}
@@ -1,8 +1,8 @@
 package xadrez;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import camadaTabuleiro.Peca;
 import camadaTabuleiro.Posicao;
@@ -16,6 +16,35 @@ import xadrez.pecas.Torre;
 
 public class PartidaXadrez {
 
+	public static final int ROQUE_BRANCO_REI = 1;
+	public static final int ROQUE_BRANCO_RAINHA = 2;
+	public static final int ROQUE_PRETO_REI = 4;
+	public static final int ROQUE_PRETO_RAINHA = 8;
+
+	public static final String FEN_INICIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private static final int[] MASCARA_ROQUE = new int[64];
+	private static final Posicao[] POSICOES = new Posicao[64];
+	private static final TipoPeca[] TIPOS = TipoPeca.values();
+	private static final String LETRAS_FEN = "PNBRQK";
+	private static final long LINHAS_PROMOCAO = 0xFF000000000000FFL;
+	private static final long CASAS_CLARAS = 0xAA55AA55AA55AA55L;
+	private static final int LIMITE_CINQUENTA_LANCES = 100;
+	private static final int MASCARA_CHAVES = 1023;
+
+	static {
+		for (int casa = 0; casa < 64; casa++) {
+			POSICOES[casa] = new Posicao(Bitboards.linha(casa), Bitboards.coluna(casa));
+		}
+		Arrays.fill(MASCARA_ROQUE, 15);
+		MASCARA_ROQUE[Bitboards.casa(7, 4)] &= ~(ROQUE_BRANCO_REI | ROQUE_BRANCO_RAINHA);
+		MASCARA_ROQUE[Bitboards.casa(7, 7)] &= ~ROQUE_BRANCO_REI;
+		MASCARA_ROQUE[Bitboards.casa(7, 0)] &= ~ROQUE_BRANCO_RAINHA;
+		MASCARA_ROQUE[Bitboards.casa(0, 4)] &= ~(ROQUE_PRETO_REI | ROQUE_PRETO_RAINHA);
+		MASCARA_ROQUE[Bitboards.casa(0, 7)] &= ~ROQUE_PRETO_REI;
+		MASCARA_ROQUE[Bitboards.casa(0, 0)] &= ~ROQUE_PRETO_RAINHA;
+	}
+
 	private int turno;
 	private Cor jogadorAtual;
 	private Tabuleiro tabuleiro;
@@ -23,15 +52,277 @@ public class PartidaXadrez {
 	private boolean xequeMate;
 	private PecaXadrez enPassantVulneravel;
 	private PecaXadrez promocao;
+	private int direitosRoque;
+	private long chave;
+	private long chaveEnPassant;
+	private long chavePeoes;
+	private int relogioMeiosLances;
+	private int meioJogo;
+	private int finalJogo;
+	private int fase;
+
+	// anel com as chaves das ultimas posicoes, a atual em totalChaves - 1; a busca por repeticao
+	// nunca volta alem do relogio de meios-lances, entao o anel so precisa cobrir esse trecho
+	private long[] chaves = new long[MASCARA_CHAVES + 1];
+	private int totalChaves;
+
+	private int[] historicoDireitos = new int[64];
+	private int[] historicoRelogio = new int[64];
+	private int totalHistorico;
+
+	private Peca[] pilhaCapturadas = new Peca[64];
+	private PecaXadrez[] pilhaEnPassant = new PecaXadrez[64];
+	private PecaXadrez[] pilhaPromovidas = new PecaXadrez[64];
+	private boolean[] pilhaXeque = new boolean[64];
+	private int ply;
 
-	private List<Peca> pecasNoTabuleiro = new ArrayList<>();
+	private IndicePecas pecasNoTabuleiro = new IndicePecas();
 	private List<Peca> pecasCapturadas = new ArrayList<>();
+	private int[] casasRei = { -1, -1 };
 
 	public PartidaXadrez() {
 		tabuleiro = new Tabuleiro(8, 8);
 		turno = 1;
 		jogadorAtual = Cor.BRANCO;
 		setupInicial();
+		direitosRoque = ROQUE_BRANCO_REI | ROQUE_BRANCO_RAINHA | ROQUE_PRETO_REI | ROQUE_PRETO_RAINHA;
+		chave = calcularChave();
+		registrarChave();
+	}
+
+	public PartidaXadrez(PartidaXadrez outra) {
+		tabuleiro = new Tabuleiro(8, 8);
+		turno = outra.turno;
+		jogadorAtual = outra.jogadorAtual;
+		xeque = outra.xeque;
+		xequeMate = outra.xequeMate;
+		direitosRoque = outra.direitosRoque;
+		relogioMeiosLances = outra.relogioMeiosLances;
+		long ocupacao = outra.tabuleiro.getOcupacao();
+		while (ocupacao != 0) {
+			int casa = Long.numberOfTrailingZeros(ocupacao);
+			PecaXadrez original = (PecaXadrez) outra.tabuleiro.pecaCasa(casa);
+			PecaXadrez copia = copiarPeca(original);
+			colocarPeca(copia, POSICOES[casa]);
+			pecasNoTabuleiro.adicionar(copia);
+			if (original == outra.enPassantVulneravel) {
+				enPassantVulneravel = copia;
+				chaveEnPassant = outra.chaveEnPassant;
+			}
+			if (original == outra.promocao) {
+				promocao = copia;
+			}
+			ocupacao &= ocupacao - 1;
+		}
+		for (Peca p : outra.pecasCapturadas) {
+			pecasCapturadas.add(copiarPeca((PecaXadrez) p));
+		}
+		chave = calcularChave();
+		chaves = outra.chaves.clone();
+		totalChaves = outra.totalChaves;
+	}
+
+	private PartidaXadrez(String fen) {
+		tabuleiro = new Tabuleiro(8, 8);
+		String[] campos = fen.trim().split(" ");
+		if (campos.length < 4) {
+			throw fenInvalido(fen);
+		}
+
+		String pecas = campos[0];
+		int casa = 0;
+		int coluna = 0;
+		for (int i = 0; i < pecas.length(); i++) {
+			char c = pecas.charAt(i);
+			if (c == '/') {
+				if (coluna != 8) {
+					throw fenInvalido(fen);
+				}
+				coluna = 0;
+			} else if (c >= '1' && c <= '8') {
+				casa += c - '0';
+				coluna += c - '0';
+			} else {
+				int tipo = LETRAS_FEN.indexOf(Character.toUpperCase(c));
+				if (tipo < 0 || casa >= 64) {
+					throw fenInvalido(fen);
+				}
+				PecaXadrez p = novaPeca(TIPOS[tipo], Character.isUpperCase(c) ? Cor.BRANCO : Cor.PRETO);
+				colocarPeca(p, POSICOES[casa]);
+				pecasNoTabuleiro.adicionar(p);
+				casa++;
+				coluna++;
+			}
+			if (coluna > 8) {
+				throw fenInvalido(fen);
+			}
+		}
+		if (casa != 64 || coluna != 8 || getQuantidade(TipoPeca.REI, Cor.BRANCO) != 1 || getQuantidade(TipoPeca.REI, Cor.PRETO) != 1) {
+			throw fenInvalido(fen);
+		}
+
+		if (campos[1].equals("w")) {
+			jogadorAtual = Cor.BRANCO;
+		} else if (campos[1].equals("b")) {
+			jogadorAtual = Cor.PRETO;
+		} else {
+			throw fenInvalido(fen);
+		}
+
+		// so vale o direito de roque com rei e torre nas casas de origem
+		int direitos = 0;
+		if (!campos[2].equals("-")) {
+			for (int i = 0; i < campos[2].length(); i++) {
+				switch (campos[2].charAt(i)) {
+				case 'K':
+					direitos |= ROQUE_BRANCO_REI;
+					break;
+				case 'Q':
+					direitos |= ROQUE_BRANCO_RAINHA;
+					break;
+				case 'k':
+					direitos |= ROQUE_PRETO_REI;
+					break;
+				case 'q':
+					direitos |= ROQUE_PRETO_RAINHA;
+					break;
+				default:
+					throw fenInvalido(fen);
+				}
+			}
+		}
+		direitos &= direitosPossiveis(Cor.BRANCO, 7, ROQUE_BRANCO_REI, ROQUE_BRANCO_RAINHA);
+		direitos &= direitosPossiveis(Cor.PRETO, 0, ROQUE_PRETO_REI, ROQUE_PRETO_RAINHA);
+		direitosRoque = direitos;
+		ajustarContagemMovimentos();
+
+		// #movimentoEspecial en passant
+		if (!campos[3].equals("-")) {
+			if (campos[3].length() != 2) {
+				throw fenInvalido(fen);
+			}
+			int alvo = Bitboards.casa(new PosicaoXadrez(campos[3].charAt(0), campos[3].charAt(1) - '0').toPosicao());
+			int casaPeao = alvo + ((jogadorAtual == Cor.BRANCO) ? 8 : -8);
+			PecaXadrez peao = (casaPeao >= 0 && casaPeao < 64) ? (PecaXadrez) tabuleiro.pecaCasa(casaPeao) : null;
+			if (peao instanceof Peao && peao.getCor() != jogadorAtual) {
+				enPassantVulneravel = peao;
+				chaveEnPassant = Zobrist.enPassant(Bitboards.coluna(casaPeao));
+			}
+		}
+
+		try {
+			relogioMeiosLances = (campos.length > 4) ? Integer.parseInt(campos[4]) : 0;
+			int lance = (campos.length > 5) ? Integer.parseInt(campos[5]) : 1;
+			turno = 2 * Math.max(lance - 1, 0) + ((jogadorAtual == Cor.BRANCO) ? 1 : 2);
+		} catch (NumberFormatException e) {
+			throw fenInvalido(fen);
+		}
+
+		if (testeXeque(oponente(jogadorAtual))) {
+			throw new XadrezException("FEN invalido, o lado que nao joga esta em xeque: " + fen);
+		}
+		chave = calcularChave();
+		registrarChave();
+		xeque = testeXeque(jogadorAtual);
+		xequeMate = xeque && !existeMovimentoLegal(jogadorAtual);
+	}
+
+	public static PartidaXadrez fromFen(String fen) {
+		return new PartidaXadrez(fen);
+	}
+
+	public String toFen() {
+		StringBuilder sb = new StringBuilder(90);
+		for (int linha = 0; linha < 8; linha++) {
+			int vazias = 0;
+			for (int coluna = 0; coluna < 8; coluna++) {
+				PecaXadrez p = (PecaXadrez) tabuleiro.pecaCasa(Bitboards.casa(linha, coluna));
+				if (p == null) {
+					vazias++;
+					continue;
+				}
+				if (vazias > 0) {
+					sb.append(vazias);
+					vazias = 0;
+				}
+				char letra = LETRAS_FEN.charAt(p.getTipo().ordinal());
+				sb.append((p.getCor() == Cor.BRANCO) ? letra : Character.toLowerCase(letra));
+			}
+			if (vazias > 0) {
+				sb.append(vazias);
+			}
+			if (linha < 7) {
+				sb.append('/');
+			}
+		}
+
+		sb.append((jogadorAtual == Cor.BRANCO) ? " w " : " b ");
+		if (direitosRoque == 0) {
+			sb.append('-');
+		} else {
+			if ((direitosRoque & ROQUE_BRANCO_REI) != 0) sb.append('K');
+			if ((direitosRoque & ROQUE_BRANCO_RAINHA) != 0) sb.append('Q');
+			if ((direitosRoque & ROQUE_PRETO_REI) != 0) sb.append('k');
+			if ((direitosRoque & ROQUE_PRETO_RAINHA) != 0) sb.append('q');
+		}
+
+		sb.append(' ');
+		if (enPassantVulneravel != null && enPassantVulneravel.getCasa() >= 0) {
+			int casa = enPassantVulneravel.getCasa();
+			sb.append(Movimento.casaParaTexto(casa + ((enPassantVulneravel.getCor() == Cor.BRANCO) ? 8 : -8)));
+		} else {
+			sb.append('-');
+		}
+
+		sb.append(' ').append(relogioMeiosLances).append(' ').append((turno + 1) / 2);
+		return sb.toString();
+	}
+
+	private static XadrezException fenInvalido(String fen) {
+		return new XadrezException("FEN invalido: " + fen);
+	}
+
+	private int direitosPossiveis(Cor cor, int linha, int direitoRei, int direitoRainha) {
+		int casaRei = Bitboards.casa(linha, 4);
+		if (casaRei(cor) != casaRei) {
+			return ~(direitoRei | direitoRainha);
+		}
+		int direitos = ~(direitoRei | direitoRainha);
+		if (torreRoque(casaRei + 3, cor)) {
+			direitos |= direitoRei;
+		}
+		if (torreRoque(casaRei - 4, cor)) {
+			direitos |= direitoRainha;
+		}
+		return direitos;
+	}
+
+	// o roque e o avanco duplo do peao olham a contagem de movimentos das pecas
+	private void ajustarContagemMovimentos() {
+		long ocupacao = tabuleiro.getOcupacao();
+		while (ocupacao != 0) {
+			int casa = Long.numberOfTrailingZeros(ocupacao);
+			PecaXadrez p = (PecaXadrez) tabuleiro.pecaCasa(casa);
+			boolean branca = p.getCor() == Cor.BRANCO;
+			boolean parada;
+			switch (p.getTipo()) {
+			case PEAO:
+				parada = Bitboards.linha(casa) == (branca ? 6 : 1);
+				break;
+			case REI:
+				parada = (direitosRoque & (branca ? ROQUE_BRANCO_REI | ROQUE_BRANCO_RAINHA : ROQUE_PRETO_REI | ROQUE_PRETO_RAINHA)) != 0;
+				break;
+			case TORRE:
+				int linha = branca ? 7 : 0;
+				parada = (casa == Bitboards.casa(linha, 7) && (direitosRoque & (branca ? ROQUE_BRANCO_REI : ROQUE_PRETO_REI)) != 0)
+						|| (casa == Bitboards.casa(linha, 0) && (direitosRoque & (branca ? ROQUE_BRANCO_RAINHA : ROQUE_PRETO_RAINHA)) != 0);
+				break;
+			default:
+				parada = true;
+			}
+			p.setContagemMovimentos(parada ? 0 : 1);
+			ocupacao &= ocupacao - 1;
+		}
 	}
 
 	public int getTurno() {
@@ -50,6 +341,67 @@ public class PartidaXadrez {
 		return xequeMate;
 	}
 
+	// no mate a vez ja passou para quem levou
+	public Cor getVencedor() {
+		return (getEstado() == EstadoPartida.XEQUE_MATE) ? oponente(jogadorAtual) : null;
+	}
+
+	// so o afogamento precisa olhar os lances; repeticao, relogio e material saem do anel e dos contadores
+	public EstadoPartida getEstado() {
+		if (xequeMate) {
+			return EstadoPartida.XEQUE_MATE;
+		}
+		if (!existeMovimentoLegal(jogadorAtual)) {
+			return xeque ? EstadoPartida.XEQUE_MATE : EstadoPartida.AFOGAMENTO;
+		}
+		if (materialInsuficiente()) {
+			return EstadoPartida.MATERIAL_INSUFICIENTE;
+		}
+		if (relogioMeiosLances >= LIMITE_CINQUENTA_LANCES) {
+			return EstadoPartida.CINQUENTA_LANCES;
+		}
+		if (repeticao(2)) {
+			return EstadoPartida.REPETICAO;
+		}
+		return EstadoPartida.EM_ANDAMENTO;
+	}
+
+	// a posicao atual ja apareceu pelo menos tantas vezes antes; so olha as posicoes com o mesmo lado
+	// a jogar desde o ultimo lance irreversivel, e a primeira possivel esta 4 meios-lances atras
+	public boolean repeticao(int vezes) {
+		int limite = Math.min(relogioMeiosLances, Math.min(totalChaves - 1, MASCARA_CHAVES));
+		int encontradas = 0;
+		for (int i = 4; i <= limite; i += 2) {
+			if (chaves[(totalChaves - 1 - i) & MASCARA_CHAVES] == chave && ++encontradas >= vezes) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean regraCinquentaLances() {
+		return relogioMeiosLances >= LIMITE_CINQUENTA_LANCES;
+	}
+
+	// nenhum mate possivel: reis sozinhos, uma peca menor, ou so bispos todos na mesma cor de casa
+	public boolean materialInsuficiente() {
+		if (getQuantidade(TipoPeca.PEAO, Cor.BRANCO) + getQuantidade(TipoPeca.PEAO, Cor.PRETO)
+				+ getQuantidade(TipoPeca.TORRE, Cor.BRANCO) + getQuantidade(TipoPeca.TORRE, Cor.PRETO)
+				+ getQuantidade(TipoPeca.RAINHA, Cor.BRANCO) + getQuantidade(TipoPeca.RAINHA, Cor.PRETO) > 0) {
+			return false;
+		}
+		int cavalos = getQuantidade(TipoPeca.CAVALO, Cor.BRANCO) + getQuantidade(TipoPeca.CAVALO, Cor.PRETO);
+		int bispos = getQuantidade(TipoPeca.BISPO, Cor.BRANCO) + getQuantidade(TipoPeca.BISPO, Cor.PRETO);
+		if (cavalos + bispos <= 1) {
+			return true;
+		}
+		if (cavalos > 0) {
+			return false;
+		}
+		long todos = bitboard(TipoPeca.BISPO, Cor.BRANCO) | bitboard(TipoPeca.BISPO, Cor.PRETO);
+		return (todos & CASAS_CLARAS) == 0 || (todos & ~CASAS_CLARAS) == 0;
+	}
+
 	public PecaXadrez getEnPassantVulneravel() {
 		return enPassantVulneravel;
 	}
@@ -58,6 +410,60 @@ public class PartidaXadrez {
 		return promocao;
 	}
 
+	public int getDireitosRoque() {
+		return direitosRoque;
+	}
+
+	public long getChave() {
+		return chave;
+	}
+
+	// so os peoes entram nesta chave: ela muda quando um peao anda, captura, eh capturado ou promove
+	public long getChavePeoes() {
+		return chavePeoes;
+	}
+
+	public int getRelogioMeiosLances() {
+		return relogioMeiosLances;
+	}
+
+	// somas de material e tabelas posicionais, positivas para as brancas, mantidas a cada peca colocada ou removida
+	public int getMeioJogo() {
+		return meioJogo;
+	}
+
+	public int getFinalJogo() {
+		return finalJogo;
+	}
+
+	public int getFase() {
+		return fase;
+	}
+
+	public long bitboard(TipoPeca tipo, Cor cor) {
+		return tabuleiro.bitboard(Bitboards.indice(tipo, cor));
+	}
+
+	public long ocupacao(Cor cor) {
+		return tabuleiro.ocupacaoGrupo(cor.ordinal());
+	}
+
+	public long getOcupacao() {
+		return tabuleiro.getOcupacao();
+	}
+
+	public int getQuantidade(TipoPeca tipo, Cor cor) {
+		return pecasNoTabuleiro.quantidade(tipo, cor);
+	}
+
+	public PecaXadrez getPeca(TipoPeca tipo, Cor cor, int indice) {
+		return pecasNoTabuleiro.get(tipo, cor, indice);
+	}
+
+	public PecaXadrez pecaCasa(int casa) {
+		return (PecaXadrez) tabuleiro.pecaCasa(casa);
+	}
+
 	public PecaXadrez[][] getPecas() {
 		PecaXadrez[][] mat = new PecaXadrez[tabuleiro.getLinhas()][tabuleiro.getColunas()];
 		for (int i = 0; i < tabuleiro.getLinhas(); i++) {
@@ -72,7 +478,68 @@ public class PartidaXadrez {
 	public boolean[][] possiveisMovimentos(PosicaoXadrez posicaoOrigem) {
 		Posicao posicao = posicaoOrigem.toPosicao();
 		validarBuscaPosicao(posicao);
-		return tabuleiro.peca(posicao).possiveisMovimentos();
+		return Bitboards.paraMatriz(movimentosLegais(Bitboards.casa(posicao)));
+	}
+
+	public long movimentosLegais(int casa) {
+		PecaXadrez p = (PecaXadrez) tabuleiro.pecaCasa(casa);
+		if (p == null) {
+			return 0L;
+		}
+		Cor cor = p.getCor();
+		int casaRei = casaRei(cor);
+		return alvosLegais(p, casaRei, atacantes(casaRei, oponente(cor), tabuleiro.getOcupacao()), cravadas(cor, casaRei));
+	}
+
+	public int gerarMovimentosLegais(ListaMovimentos lista) {
+		lista.limpar();
+		int casaRei = casaRei(jogadorAtual);
+		long xequeadores = atacantes(casaRei, oponente(jogadorAtual), tabuleiro.getOcupacao());
+		long cravadas = cravadas(jogadorAtual, casaRei);
+		long pecas = ocupacao(jogadorAtual);
+		while (pecas != 0) {
+			PecaXadrez p = (PecaXadrez) tabuleiro.pecaCasa(Long.numberOfTrailingZeros(pecas));
+			p.adicionarMovimentos(lista, alvosLegais(p, casaRei, xequeadores, cravadas));
+			pecas &= pecas - 1;
+		}
+		return lista.getTamanho();
+	}
+
+	// so capturas, en passant e promocoes, para a quiescencia
+	public int gerarCapturasLegais(ListaMovimentos lista) {
+		lista.limpar();
+		int casaRei = casaRei(jogadorAtual);
+		long xequeadores = atacantes(casaRei, oponente(jogadorAtual), tabuleiro.getOcupacao());
+		long cravadas = cravadas(jogadorAtual, casaRei);
+		long adversarias = ocupacao(oponente(jogadorAtual));
+		int casaEnPassant = casaEnPassant(jogadorAtual);
+		long taticasPeao = adversarias | LINHAS_PROMOCAO | ((casaEnPassant >= 0) ? Bitboards.bit(casaEnPassant) : 0L);
+		long pecas = ocupacao(jogadorAtual);
+		while (pecas != 0) {
+			PecaXadrez p = (PecaXadrez) tabuleiro.pecaCasa(Long.numberOfTrailingZeros(pecas));
+			long alvos = alvosLegais(p, casaRei, xequeadores, cravadas);
+			p.adicionarMovimentos(lista, alvos & ((p instanceof Peao) ? taticasPeao : adversarias));
+			pecas &= pecas - 1;
+		}
+		return lista.getTamanho();
+	}
+
+	public boolean existeMovimentoLegal(Cor cor) {
+		int casaRei = casaRei(cor);
+		long xequeadores = atacantes(casaRei, oponente(cor), tabuleiro.getOcupacao());
+		long cravadas = cravadas(cor, casaRei);
+		if (alvosLegais((PecaXadrez) tabuleiro.pecaCasa(casaRei), casaRei, xequeadores, cravadas) != 0) {
+			return true;
+		}
+		long pecas = ocupacao(cor) & ~Bitboards.bit(casaRei);
+		while (pecas != 0) {
+			PecaXadrez p = (PecaXadrez) tabuleiro.pecaCasa(Long.numberOfTrailingZeros(pecas));
+			if (alvosLegais(p, casaRei, xequeadores, cravadas) != 0) {
+				return true;
+			}
+			pecas &= pecas - 1;
+		}
+		return false;
 	}
 
 	public PecaXadrez executaPecaXadrez(PosicaoXadrez buscaPosicao, PosicaoXadrez destinoPosicao) {
@@ -82,11 +549,6 @@ public class PartidaXadrez {
 		validarCapturaPosicao(origem, destino);
 		Peca pecaCapturada = moverPeca(origem, destino);
 
-		if (testeXeque(jogadorAtual)) {
-			desfazerMovimento(origem, destino, pecaCapturada);
-			throw new XadrezException("Voce nao pode se colocar em xeque");
-		}
-		
 		PecaXadrez pecaMovida = (PecaXadrez) tabuleiro.peca(destino);
 
 		// #movimentoEspecial promocao
@@ -94,29 +556,53 @@ public class PartidaXadrez {
 		if (pecaMovida instanceof Peao) {
 			if ((pecaMovida.getCor() == Cor.BRANCO && destino.getLinha() == 0) || (pecaMovida.getCor() == Cor.PRETO && destino.getLinha() == 7)) {
 				promocao = (PecaXadrez) tabuleiro.peca(destino);
-				promocao = substituirPecaPromovida("Q");
+				promocao = trocarPecaPromovida("Q");
 			}
 		}
 		
-		xeque = (testeXeque(oponente(jogadorAtual))) ? true : false;
-
-		if (testeXequeMate(oponente(jogadorAtual))) {
-			xequeMate = true;
-		} else {
-			proximoTurno();
-		}
-		
 		// #movimentoEspecial en passant
 		if (pecaMovida instanceof Peao && (destino.getLinha() == origem.getLinha() - 2 || destino.getLinha() == origem.getLinha() + 2)) {
-			enPassantVulneravel = pecaMovida;
+			definirEnPassant(pecaMovida);
 		} else {
-			enPassantVulneravel = null;
+			definirEnPassant(null);
 		}
 
+		// a vez passa mesmo no mate: quem joga agora eh quem levou
+		proximoTurno();
+		xeque = testeXeque(jogadorAtual);
+		xequeMate = xeque && !existeMovimentoLegal(jogadorAtual);
+		registrarChave();
+
 		return (PecaXadrez) pecaCapturada;
 	}
 
+	public PecaXadrez executaMovimento(int movimento) {
+		PecaXadrez pecaCapturada = executaPecaXadrez(PosicaoXadrez.fromCasa(Movimento.origem(movimento)),
+				PosicaoXadrez.fromCasa(Movimento.destino(movimento)));
+		TipoPeca tipo = Movimento.promocao(movimento);
+		if (promocao != null && tipo != null && tipo != TipoPeca.RAINHA) {
+			substituirPecaPromovida(letraPromocao(tipo));
+		}
+		return pecaCapturada;
+	}
+
+	private String letraPromocao(TipoPeca tipo) {
+		if (tipo == TipoPeca.BISPO) return "B";
+		if (tipo == TipoPeca.CAVALO) return "C";
+		if (tipo == TipoPeca.TORRE) return "T";
+		return "Q";
+	}
+
+	// o lance ja foi concluido com a dama: xeque e mate sao refeitos com a peca escolhida e a entrada do anel eh corrigida
 	public PecaXadrez substituirPecaPromovida(String tipo) {
+		PecaXadrez novaPeca = trocarPecaPromovida(tipo);
+		xeque = testeXeque(jogadorAtual);
+		xequeMate = xeque && !existeMovimentoLegal(jogadorAtual);
+		chaves[(totalChaves - 1) & MASCARA_CHAVES] = chave;
+		return novaPeca;
+	}
+
+	private PecaXadrez trocarPecaPromovida(String tipo) {
 	
 		if (promocao == null) {
 			throw new IllegalStateException("Nao ha peca para ser promovida");
@@ -126,12 +612,12 @@ public class PartidaXadrez {
 		}
 		
 		Posicao pos = promocao.getPosicaoXadrez().toPosicao();
-		Peca p = tabuleiro.removerPeca(pos);
-		pecasNoTabuleiro.remove(p);
+		PecaXadrez p = (PecaXadrez) removerPeca(pos);
+		pecasNoTabuleiro.remover(p);
 		
 		PecaXadrez novaPeca = novaPeca(tipo, promocao.getCor());
-		tabuleiro.posicaoPeca(novaPeca, pos);
-		pecasNoTabuleiro.add(novaPeca);
+		colocarPeca(novaPeca, pos);
+		pecasNoTabuleiro.adicionar(novaPeca);
 		
 		return novaPeca;
 	}
@@ -143,14 +629,215 @@ public class PartidaXadrez {
 		return new Torre(tabuleiro, cor);
 	}
 
+	private PecaXadrez novaPeca(TipoPeca tipo, Cor cor) {
+		switch (tipo) {
+		case PEAO:
+			return new Peao(tabuleiro, cor, this);
+		case CAVALO:
+			return new Cavalo(tabuleiro, cor);
+		case BISPO:
+			return new Bispo(tabuleiro, cor);
+		case TORRE:
+			return new Torre(tabuleiro, cor);
+		case RAINHA:
+			return new Rainha(tabuleiro, cor);
+		default:
+			return new Rei(tabuleiro, cor, this);
+		}
+	}
+
+	private PecaXadrez copiarPeca(PecaXadrez original) {
+		PecaXadrez copia = novaPeca(original.getTipo(), original.getCor());
+		copia.setContagemMovimentos(original.getContagemMovimentos());
+		return copia;
+	}
+
+	public void fazerMovimento(int movimento) {
+		garantirPilha();
+		Posicao origem = POSICOES[Movimento.origem(movimento)];
+		Posicao destino = POSICOES[Movimento.destino(movimento)];
+		pilhaEnPassant[ply] = enPassantVulneravel;
+		pilhaXeque[ply] = xeque;
+		pilhaCapturadas[ply] = moverPeca(origem, destino);
+		pilhaPromovidas[ply] = null;
+
+		PecaXadrez pecaMovida = (PecaXadrez) tabuleiro.peca(destino);
+
+		// #movimentoEspecial promocao
+		TipoPeca tipoPromocao = Movimento.promocao(movimento);
+		if (tipoPromocao != null) {
+			pilhaPromovidas[ply] = pecaMovida;
+			removerPeca(destino);
+			pecasNoTabuleiro.remover(pecaMovida);
+			PecaXadrez novaPeca = novaPeca(tipoPromocao, pecaMovida.getCor());
+			colocarPeca(novaPeca, destino);
+			pecasNoTabuleiro.adicionar(novaPeca);
+		}
+		ply++;
+
+		// #movimentoEspecial en passant
+		if (pecaMovida instanceof Peao && Math.abs(destino.getLinha() - origem.getLinha()) == 2) {
+			definirEnPassant(pecaMovida);
+		} else {
+			definirEnPassant(null);
+		}
+
+		proximoTurno();
+		xeque = testeXeque(jogadorAtual);
+		registrarChave();
+	}
+
+	public void desfazerMovimento(int movimento) {
+		ply--;
+		totalChaves--;
+		turnoAnterior();
+		Posicao origem = POSICOES[Movimento.origem(movimento)];
+		Posicao destino = POSICOES[Movimento.destino(movimento)];
+
+		// #movimentoEspecial promocao
+		PecaXadrez peao = pilhaPromovidas[ply];
+		if (peao != null) {
+			PecaXadrez novaPeca = (PecaXadrez) removerPeca(destino);
+			pecasNoTabuleiro.remover(novaPeca);
+			colocarPeca(peao, destino);
+			pecasNoTabuleiro.adicionar(peao);
+			pilhaPromovidas[ply] = null;
+		}
+
+		// #movimentoEspecial en passant
+		definirEnPassant(null);
+		enPassantVulneravel = pilhaEnPassant[ply];
+		desfazerMovimento(origem, destino, pilhaCapturadas[ply]);
+		definirEnPassant(enPassantVulneravel);
+		xeque = pilhaXeque[ply];
+		pilhaCapturadas[ply] = null;
+		pilhaEnPassant[ply] = null;
+	}
+
+	// lance nulo da busca: so passa a vez, sem tocar nas pecas; com o rei em xeque nao faz sentido
+	public void fazerMovimentoNulo() {
+		if (xeque) {
+			throw new IllegalStateException("Lance nulo com o rei em xeque");
+		}
+		garantirPilha();
+		pilhaEnPassant[ply] = enPassantVulneravel;
+		pilhaXeque[ply] = xeque;
+		pilhaCapturadas[ply] = null;
+		pilhaPromovidas[ply] = null;
+		ply++;
+		// passar a vez conta como irreversivel para a repeticao
+		empilharHistorico();
+		relogioMeiosLances = 0;
+		definirEnPassant(null);
+		proximoTurno();
+		registrarChave();
+	}
+
+	public void desfazerMovimentoNulo() {
+		ply--;
+		totalChaves--;
+		relogioMeiosLances = historicoRelogio[--totalHistorico];
+		turnoAnterior();
+		definirEnPassant(pilhaEnPassant[ply]);
+		xeque = pilhaXeque[ply];
+		pilhaEnPassant[ply] = null;
+	}
+
+	private void garantirPilha() {
+		if (ply == pilhaCapturadas.length) {
+			pilhaCapturadas = Arrays.copyOf(pilhaCapturadas, ply * 2);
+			pilhaEnPassant = Arrays.copyOf(pilhaEnPassant, ply * 2);
+			pilhaPromovidas = Arrays.copyOf(pilhaPromovidas, ply * 2);
+			pilhaXeque = Arrays.copyOf(pilhaXeque, ply * 2);
+		}
+	}
+
+	private Peca removerPeca(Posicao posicao) {
+		Peca p = tabuleiro.removerPeca(posicao);
+		if (p != null) {
+			PecaXadrez pecaXadrez = (PecaXadrez) p;
+			int casa = Bitboards.casa(posicao);
+			chave ^= Zobrist.peca(pecaXadrez, casa);
+			if (pecaXadrez.getTipo() == TipoPeca.PEAO) {
+				chavePeoes ^= Zobrist.peca(pecaXadrez, casa);
+			}
+			meioJogo -= TabelasPosicionais.meioJogo(pecaXadrez, casa);
+			finalJogo -= TabelasPosicionais.finalJogo(pecaXadrez, casa);
+			fase -= TabelasPosicionais.fase(pecaXadrez);
+		}
+		return p;
+	}
+
+	private void colocarPeca(Peca p, Posicao posicao) {
+		tabuleiro.posicaoPeca(p, posicao);
+		PecaXadrez pecaXadrez = (PecaXadrez) p;
+		int casa = Bitboards.casa(posicao);
+		chave ^= Zobrist.peca(pecaXadrez, casa);
+		if (pecaXadrez.getTipo() == TipoPeca.PEAO) {
+			chavePeoes ^= Zobrist.peca(pecaXadrez, casa);
+		}
+		meioJogo += TabelasPosicionais.meioJogo(pecaXadrez, casa);
+		finalJogo += TabelasPosicionais.finalJogo(pecaXadrez, casa);
+		fase += TabelasPosicionais.fase(pecaXadrez);
+		if (pecaXadrez.getTipo() == TipoPeca.REI) {
+			casasRei[pecaXadrez.getCor().ordinal()] = casa;
+		}
+	}
+
+	private void definirEnPassant(PecaXadrez peca) {
+		chave ^= chaveEnPassant;
+		enPassantVulneravel = peca;
+		chaveEnPassant = (peca == null) ? 0L : Zobrist.enPassant(Bitboards.coluna(peca.getCasa()));
+		chave ^= chaveEnPassant;
+	}
+
+	private void definirDireitosRoque(int direitos) {
+		chave ^= Zobrist.roque(direitosRoque) ^ Zobrist.roque(direitos);
+		direitosRoque = direitos;
+	}
+
+	private long calcularChave() {
+		long k = 0L;
+		long ocupacao = tabuleiro.getOcupacao();
+		while (ocupacao != 0) {
+			int casa = Long.numberOfTrailingZeros(ocupacao);
+			k ^= Zobrist.peca((PecaXadrez) tabuleiro.pecaCasa(casa), casa);
+			ocupacao &= ocupacao - 1;
+		}
+		k ^= Zobrist.roque(direitosRoque);
+		if (enPassantVulneravel != null) {
+			k ^= Zobrist.enPassant(Bitboards.coluna(enPassantVulneravel.getCasa()));
+		}
+		if (jogadorAtual == Cor.PRETO) {
+			k ^= Zobrist.lado();
+		}
+		return k;
+	}
+
+	private void registrarChave() {
+		chaves[totalChaves++ & MASCARA_CHAVES] = chave;
+	}
+
+	private void empilharHistorico() {
+		if (totalHistorico == historicoDireitos.length) {
+			historicoDireitos = Arrays.copyOf(historicoDireitos, totalHistorico * 2);
+			historicoRelogio = Arrays.copyOf(historicoRelogio, totalHistorico * 2);
+		}
+		historicoRelogio[totalHistorico] = relogioMeiosLances;
+		historicoDireitos[totalHistorico++] = direitosRoque;
+	}
+
 	private Peca moverPeca(Posicao origem, Posicao destino) {
-		PecaXadrez p = (PecaXadrez) tabuleiro.removerPeca(origem);
+		empilharHistorico();
+		definirDireitosRoque(direitosRoque & MASCARA_ROQUE[Bitboards.casa(origem)] & MASCARA_ROQUE[Bitboards.casa(destino)]);
+
+		PecaXadrez p = (PecaXadrez) removerPeca(origem);
 		p.incrementarMovimentos();
-		Peca pecaCapturada = tabuleiro.removerPeca(destino);
-		tabuleiro.posicaoPeca(p, destino);
+		Peca pecaCapturada = removerPeca(destino);
+		colocarPeca(p, destino);
 
 		if (pecaCapturada != null) {
-			pecasNoTabuleiro.remove(pecaCapturada);
+			pecasNoTabuleiro.remover((PecaXadrez) pecaCapturada);
 			pecasCapturadas.add(pecaCapturada);
 		}
 
@@ -158,8 +845,8 @@ public class PartidaXadrez {
 		if (p instanceof Rei && destino.getColuna() == origem.getColuna() + 2) {
 			Posicao origemT = new Posicao(origem.getLinha(), origem.getColuna() + 3);
 			Posicao destinoT = new Posicao(origem.getLinha(), origem.getColuna() + 1);
-			PecaXadrez torre = (PecaXadrez) tabuleiro.removerPeca(origemT);
-			tabuleiro.posicaoPeca(torre, destinoT);
+			PecaXadrez torre = (PecaXadrez) removerPeca(origemT);
+			colocarPeca(torre, destinoT);
 			torre.incrementarMovimentos();
 		}
 
@@ -167,8 +854,8 @@ public class PartidaXadrez {
 		if (p instanceof Rei && destino.getColuna() == origem.getColuna() - 2) {
 			Posicao origemT = new Posicao(origem.getLinha(), origem.getColuna() - 4);
 			Posicao destinoT = new Posicao(origem.getLinha(), origem.getColuna() - 1);
-			PecaXadrez torre = (PecaXadrez) tabuleiro.removerPeca(origemT);
-			tabuleiro.posicaoPeca(torre, destinoT);
+			PecaXadrez torre = (PecaXadrez) removerPeca(origemT);
+			colocarPeca(torre, destinoT);
 			torre.incrementarMovimentos();
 		}
 		
@@ -181,32 +868,33 @@ public class PartidaXadrez {
 				} else {
 					posicaoPeao = new Posicao(destino.getLinha() - 1, destino.getColuna());
 				}
-				pecaCapturada = tabuleiro.removerPeca(posicaoPeao);
+				pecaCapturada = removerPeca(posicaoPeao);
 				pecasCapturadas.add(pecaCapturada);
-				pecasNoTabuleiro.remove(pecaCapturada);
+				pecasNoTabuleiro.remover((PecaXadrez) pecaCapturada);
 			}
 		}
 
+		relogioMeiosLances = (p instanceof Peao || pecaCapturada != null) ? 0 : relogioMeiosLances + 1;
 		return pecaCapturada;
 	}
 
 	private void desfazerMovimento(Posicao origem, Posicao destino, Peca pecaCapturada) {
-		PecaXadrez p = (PecaXadrez) tabuleiro.removerPeca(destino);
+		PecaXadrez p = (PecaXadrez) removerPeca(destino);
 		p.decrementarMovimentos();
-		tabuleiro.posicaoPeca(p, origem);
+		colocarPeca(p, origem);
 
 		if (pecaCapturada != null) {
-			tabuleiro.posicaoPeca(pecaCapturada, destino);
-			pecasCapturadas.remove(pecaCapturada);
-			pecasNoTabuleiro.add(pecaCapturada);
+			colocarPeca(pecaCapturada, destino);
+			pecasCapturadas.remove(pecasCapturadas.size() - 1);
+			pecasNoTabuleiro.adicionar((PecaXadrez) pecaCapturada);
 		}
 
 		// #movimentoEspecial Roque ao lado do rei
 		if (p instanceof Rei && destino.getColuna() == origem.getColuna() + 2) {
 			Posicao origemT = new Posicao(origem.getLinha(), origem.getColuna() + 3);
 			Posicao destinoT = new Posicao(origem.getLinha(), origem.getColuna() + 1);
-			PecaXadrez torre = (PecaXadrez) tabuleiro.removerPeca(destinoT);
-			tabuleiro.posicaoPeca(torre, origemT);
+			PecaXadrez torre = (PecaXadrez) removerPeca(destinoT);
+			colocarPeca(torre, origemT);
 			torre.decrementarMovimentos();
 		}
 
@@ -214,25 +902,27 @@ public class PartidaXadrez {
 		if (p instanceof Rei && destino.getColuna() == origem.getColuna() - 2) {
 			Posicao origemT = new Posicao(origem.getLinha(), origem.getColuna() - 4);
 			Posicao destinoT = new Posicao(origem.getLinha(), origem.getColuna() - 1);
-			PecaXadrez torre = (PecaXadrez) tabuleiro.removerPeca(destinoT);
-			tabuleiro.posicaoPeca(torre, origemT);
+			PecaXadrez torre = (PecaXadrez) removerPeca(destinoT);
+			colocarPeca(torre, origemT);
 			torre.decrementarMovimentos();
 		}
 		
 		// #movimentoEspecial en passant
 		if (p instanceof Peao) {
 			if (origem.getColuna() != destino.getColuna() && pecaCapturada == enPassantVulneravel) {
-				PecaXadrez peao = (PecaXadrez) tabuleiro.removerPeca(destino);
+				PecaXadrez peao = (PecaXadrez) removerPeca(destino);
 				Posicao posicaoPeao;
 				if (p.getCor() == Cor.BRANCO) {
 					posicaoPeao = new Posicao(3, destino.getColuna());
 				} else {
 					posicaoPeao = new Posicao(4, destino.getColuna());
 				}
-				tabuleiro.posicaoPeca(peao, posicaoPeao);
+				colocarPeca(peao, posicaoPeao);
 			}
 		}
 
+		definirDireitosRoque(historicoDireitos[--totalHistorico]);
+		relogioMeiosLances = historicoRelogio[totalHistorico];
 	}
 
 	private void validarBuscaPosicao(Posicao posicao) {
@@ -243,82 +933,199 @@ public class PartidaXadrez {
 		if (jogadorAtual != ((PecaXadrez) tabuleiro.peca(posicao)).getCor()) {
 			throw new XadrezException("A peca escolhida nao eh sua");
 		}
-		if (!tabuleiro.peca(posicao).existeAlgumMovimento()) {
+		if (movimentosLegais(Bitboards.casa(posicao)) == 0) {
 			throw new XadrezException("Nao existe movimentos possiveis para a peca de origem");
 		}
 	}
 
 	private void validarCapturaPosicao(Posicao origem, Posicao destino) {
-		if (!tabuleiro.peca(origem).possivelMovimento(destino)) {
+		if (!Bitboards.contem(movimentosLegais(Bitboards.casa(origem)), Bitboards.casa(destino))) {
+			if (tabuleiro.peca(origem).possivelMovimento(destino)) {
+				throw new XadrezException("Voce nao pode se colocar em xeque");
+			}
 			throw new XadrezException("A posicao escolhida nao pode se mover para a posicao de destino");
 		}
 	}
 
 	private void proximoTurno() {
 		turno++;
+		chave ^= Zobrist.lado();
 		jogadorAtual = (jogadorAtual == Cor.BRANCO) ? Cor.PRETO : Cor.BRANCO;
 	}
 
+	private void turnoAnterior() {
+		turno--;
+		chave ^= Zobrist.lado();
+		jogadorAtual = oponente(jogadorAtual);
+	}
+
 	private Cor oponente(Cor cor) {
 		return (cor == Cor.BRANCO) ? Cor.PRETO : Cor.BRANCO;
 	}
 
-	private PecaXadrez rei(Cor cor) {
-		List<Peca> lista = pecasNoTabuleiro.stream().filter(x -> ((PecaXadrez) x).getCor() == cor)
-				.collect(Collectors.toList());
-		for (Peca p : lista) {
-			if (p instanceof Rei) {
-				return (PecaXadrez) p;
+	private int casaRei(Cor cor) {
+		int casa = casasRei[cor.ordinal()];
+		if (casa < 0) {
+			throw new IllegalStateException("Nao existe o rei da cor " + cor + " no tabuleiro");
+		}
+		return casa;
+	}
+
+	public boolean casaAtacada(PosicaoXadrez posicao, Cor cor) {
+		return casaAtacada(Bitboards.casa(posicao.toPosicao()), cor);
+	}
+
+	public boolean casaAtacada(int casa, Cor cor) {
+		long ocupacao = tabuleiro.getOcupacao();
+		if ((Ataques.cavalo(casa) & bitboard(TipoPeca.CAVALO, cor)) != 0) {
+			return true;
+		}
+		if ((Ataques.peao(oponente(cor), casa) & bitboard(TipoPeca.PEAO, cor)) != 0) {
+			return true;
+		}
+		if ((Ataques.rei(casa) & bitboard(TipoPeca.REI, cor)) != 0) {
+			return true;
+		}
+		long rainhas = bitboard(TipoPeca.RAINHA, cor);
+		if ((Ataques.torre(casa, ocupacao) & (bitboard(TipoPeca.TORRE, cor) | rainhas)) != 0) {
+			return true;
+		}
+		return (Ataques.bispo(casa, ocupacao) & (bitboard(TipoPeca.BISPO, cor) | rainhas)) != 0;
+	}
+
+	public long atacantes(int casa, Cor cor, long ocupacao) {
+		long rainhas = bitboard(TipoPeca.RAINHA, cor);
+		return (Ataques.cavalo(casa) & bitboard(TipoPeca.CAVALO, cor))
+				| (Ataques.peao(oponente(cor), casa) & bitboard(TipoPeca.PEAO, cor))
+				| (Ataques.rei(casa) & bitboard(TipoPeca.REI, cor))
+				| (Ataques.torre(casa, ocupacao) & (bitboard(TipoPeca.TORRE, cor) | rainhas))
+				| (Ataques.bispo(casa, ocupacao) & (bitboard(TipoPeca.BISPO, cor) | rainhas));
+	}
+
+	boolean testeXeque(Cor cor) {
+		return casaAtacada(casaRei(cor), oponente(cor));
+	}
+
+	private long cravadas(Cor cor, int casaRei) {
+		Cor adversario = oponente(cor);
+		long ocupacao = tabuleiro.getOcupacao();
+		long rainhas = bitboard(TipoPeca.RAINHA, adversario);
+		long atiradores = (Ataques.torre(casaRei, 0L) & (bitboard(TipoPeca.TORRE, adversario) | rainhas))
+				| (Ataques.bispo(casaRei, 0L) & (bitboard(TipoPeca.BISPO, adversario) | rainhas));
+		long cravadas = 0L;
+		while (atiradores != 0) {
+			long bloqueio = Ataques.entre(casaRei, Long.numberOfTrailingZeros(atiradores)) & ocupacao;
+			if (Long.bitCount(bloqueio) == 1) {
+				cravadas |= bloqueio & ocupacao(cor);
 			}
+			atiradores &= atiradores - 1;
 		}
-		throw new IllegalStateException("Nao existe o rei da cor " + cor + " no tabuleiro");
+		return cravadas;
 	}
 
-	private boolean testeXeque(Cor cor) {
-		Posicao posicaoRei = rei(cor).getPosicaoXadrez().toPosicao();
-		List<Peca> pecasOponentes = pecasNoTabuleiro.stream().filter(x -> ((PecaXadrez) x).getCor() == oponente(cor))
-				.collect(Collectors.toList());
-		for (Peca p : pecasOponentes) {
-			boolean[][] mat = p.possiveisMovimentos();
-			if (mat[posicaoRei.getLinha()][posicaoRei.getColuna()]) {
-				return true;
+	private long alvosLegais(PecaXadrez p, int casaRei, long xequeadores, long cravadas) {
+		int casa = p.getCasa();
+		Cor cor = p.getCor();
+		if (casa == casaRei) {
+			return alvosRei(casaRei, cor, xequeadores);
+		}
+		if (Long.bitCount(xequeadores) > 1) {
+			return 0L;
+		}
+
+		long alvos = p.movimentosBits();
+
+		// #movimentoEspecial en passant
+		long enPassant = 0L;
+		int casaEnPassant = casaEnPassant(cor);
+		if (p instanceof Peao && casaEnPassant >= 0 && Bitboards.contem(alvos, casaEnPassant)) {
+			alvos &= ~Bitboards.bit(casaEnPassant);
+			if (enPassantLegal(casa, casaEnPassant, cor, casaRei)) {
+				enPassant = Bitboards.bit(casaEnPassant);
 			}
 		}
 
-		return false;
+		if (xequeadores != 0) {
+			alvos &= xequeadores | Ataques.entre(casaRei, Long.numberOfTrailingZeros(xequeadores));
+		}
+		if (Bitboards.contem(cravadas, casa)) {
+			alvos &= Ataques.linha(casaRei, casa);
+		}
+		return alvos | enPassant;
 	}
 
-	private boolean testeXequeMate(Cor cor) {
+	private long alvosRei(int casaRei, Cor cor, long xequeadores) {
+		Cor adversario = oponente(cor);
+		long ocupacaoSemRei = tabuleiro.getOcupacao() & ~Bitboards.bit(casaRei);
+		long alvos = Ataques.rei(casaRei) & ~ocupacao(cor);
+		long legais = 0L;
+		while (alvos != 0) {
+			int destino = Long.numberOfTrailingZeros(alvos);
+			if (atacantes(destino, adversario, ocupacaoSemRei) == 0) {
+				legais |= Bitboards.bit(destino);
+			}
+			alvos &= alvos - 1;
+		}
+		if (xequeadores == 0) {
+			legais |= roques(casaRei, cor);
+		}
+		return legais;
+	}
 
-		if (!testeXeque(cor)) {
-			return false;
+	private long roques(int casaRei, Cor cor) {
+		int direitoRei = (cor == Cor.BRANCO) ? ROQUE_BRANCO_REI : ROQUE_PRETO_REI;
+		int direitoRainha = (cor == Cor.BRANCO) ? ROQUE_BRANCO_RAINHA : ROQUE_PRETO_RAINHA;
+		if ((direitosRoque & (direitoRei | direitoRainha)) == 0) {
+			return 0L;
 		}
-		List<Peca> lista = pecasNoTabuleiro.stream().filter(x -> ((PecaXadrez) x).getCor() == cor)
-				.collect(Collectors.toList());
-		for (Peca p : lista) {
-			boolean[][] mat = p.possiveisMovimentos();
-			for (int i = 0; i < tabuleiro.getLinhas(); i++) {
-				for (int j = 0; j < tabuleiro.getColunas(); j++) {
-					if (mat[i][j]) {
-						Posicao origem = ((PecaXadrez) p).getPosicaoXadrez().toPosicao();
-						Posicao destino = new Posicao(i, j);
-						Peca pecaCapturada = moverPeca(origem, destino);
-						boolean testeXeque = testeXeque(cor);
-						desfazerMovimento(origem, destino, pecaCapturada);
-						if (!testeXeque) {
-							return false;
-						}
-					}
-				}
-			}
+		Cor adversario = oponente(cor);
+		long ocupacao = tabuleiro.getOcupacao();
+		long bits = 0L;
+
+		// #movimentoEspecial Roque ao lado do rei
+		if ((direitosRoque & direitoRei) != 0 && torreRoque(casaRei + 3, cor) && (ocupacao & (Bitboards.bit(casaRei + 1) | Bitboards.bit(casaRei + 2))) == 0
+				&& !casaAtacada(casaRei + 1, adversario) && !casaAtacada(casaRei + 2, adversario)) {
+			bits |= Bitboards.bit(casaRei + 2);
+		}
+
+		// #movimentoEspecial Roque ao lado da rainha
+		if ((direitosRoque & direitoRainha) != 0 && torreRoque(casaRei - 4, cor)
+				&& (ocupacao & (Bitboards.bit(casaRei - 1) | Bitboards.bit(casaRei - 2) | Bitboards.bit(casaRei - 3))) == 0
+				&& !casaAtacada(casaRei - 1, adversario) && !casaAtacada(casaRei - 2, adversario)) {
+			bits |= Bitboards.bit(casaRei - 2);
+		}
+		return bits;
+	}
+
+	private boolean torreRoque(int casa, Cor cor) {
+		PecaXadrez p = (PecaXadrez) tabuleiro.pecaCasa(casa);
+		return p instanceof Torre && p.getCor() == cor;
+	}
+
+	private int casaEnPassant(Cor cor) {
+		if (enPassantVulneravel == null || enPassantVulneravel.getCor() == cor || enPassantVulneravel.getCasa() < 0) {
+			return -1;
 		}
+		return enPassantVulneravel.getCasa() + ((cor == Cor.BRANCO) ? -8 : 8);
+	}
+
+	private boolean enPassantLegal(int origem, int destino, Cor cor, int casaRei) {
+		int capturado = enPassantVulneravel.getCasa();
+		long ocupacao = (tabuleiro.getOcupacao() & ~Bitboards.bit(origem) & ~Bitboards.bit(capturado)) | Bitboards.bit(destino);
+		return (atacantes(casaRei, oponente(cor), ocupacao) & ~Bitboards.bit(capturado)) == 0;
+	}
 
-		return true;
+	boolean testeXequeMate(Cor cor) {
+
+		if (!testeXeque(cor)) {
+			return false;
+		}
+		return !existeMovimentoLegal(cor);
 	}
 
 	private void posicaoNovaPeca(char coluna, int linha, PecaXadrez pecaXadrez) {
-		tabuleiro.posicaoPeca(pecaXadrez, new PosicaoXadrez(coluna, linha).toPosicao());
-		pecasNoTabuleiro.add(pecaXadrez);
+		colocarPeca(pecaXadrez, new PosicaoXadrez(coluna, linha).toPosicao());
+		pecasNoTabuleiro.adicionar(pecaXadrez);
 	}
 
 	private void setupInicial() {
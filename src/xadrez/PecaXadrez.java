@@ -8,6 +8,7 @@ public abstract class PecaXadrez extends Peca {
 
 	private Cor cor;
 	private int contagemMovimentos;
+	private int indiceLista = -1;
 
 	public PecaXadrez(Tabuleiro tabuleiro, Cor cor) {
 		super(tabuleiro);
@@ -17,6 +18,18 @@ public abstract class PecaXadrez extends Peca {
 	public Cor getCor() {
 		return cor;
 	}
+
+	public abstract TipoPeca getTipo();
+
+	@Override
+	protected int indiceBitboard() {
+		return Bitboards.indice(getTipo(), cor);
+	}
+
+	@Override
+	protected int grupoBitboard() {
+		return cor.ordinal();
+	}
 	
 	public int getContagemMovimentos() {
 		return contagemMovimentos;
@@ -29,14 +42,88 @@ public abstract class PecaXadrez extends Peca {
 	public void decrementarMovimentos() {
 		contagemMovimentos--;
 	}
+
+	void setContagemMovimentos(int contagemMovimentos) {
+		this.contagemMovimentos = contagemMovimentos;
+	}
+
+	int getIndiceLista() {
+		return indiceLista;
+	}
+
+	void setIndiceLista(int indiceLista) {
+		this.indiceLista = indiceLista;
+	}
 	
 	public PosicaoXadrez getPosicaoXadrez() {
 		return PosicaoXadrez.fromPosicao(posicao);
 	}
+
+	public int getCasa() {
+		return (posicao == null) ? -1 : Bitboards.casa(posicao);
+	}
+
+	public abstract long movimentosBits();
+
+	@Override
+	public boolean[][] possiveisMovimentos() {
+		return Bitboards.paraMatriz(movimentosBits());
+	}
+
+	@Override
+	public boolean possivelMovimento(Posicao posicao) {
+		return Bitboards.contem(movimentosBits(), Bitboards.casa(posicao));
+	}
+
+	@Override
+	public boolean existeAlgumMovimento() {
+		return movimentosBits() != 0;
+	}
+
+	public void gerarMovimentos(ListaMovimentos lista) {
+		adicionarMovimentos(lista, movimentosBits());
+	}
+
+	protected void adicionarMovimentos(ListaMovimentos lista, long alvos) {
+		int origem = getCasa();
+		long adversarias = ocupacaoAdversaria();
+		TipoPeca tipo = getTipo();
+		while (alvos != 0) {
+			int destino = Long.numberOfTrailingZeros(alvos);
+			alvos &= alvos - 1;
+			int flags = Bitboards.contem(adversarias, destino) ? Movimento.CAPTURA : Movimento.NENHUM;
+			if (tipo == TipoPeca.PEAO) {
+				if (flags == Movimento.NENHUM && Bitboards.coluna(destino) != Bitboards.coluna(origem)) {
+					flags = Movimento.CAPTURA | Movimento.EN_PASSANT;
+				}
+				if (Bitboards.linha(destino) == 0 || Bitboards.linha(destino) == 7) {
+					lista.adicionar(Movimento.criar(origem, destino, flags, TipoPeca.RAINHA));
+					lista.adicionar(Movimento.criar(origem, destino, flags, TipoPeca.CAVALO));
+					lista.adicionar(Movimento.criar(origem, destino, flags, TipoPeca.TORRE));
+					lista.adicionar(Movimento.criar(origem, destino, flags, TipoPeca.BISPO));
+					continue;
+				}
+			} else if (tipo == TipoPeca.REI && Math.abs(Bitboards.coluna(destino) - Bitboards.coluna(origem)) == 2) {
+				flags |= Movimento.ROQUE;
+			}
+			lista.adicionar(Movimento.criar(origem, destino, flags));
+		}
+	}
 	
 	protected boolean existePecaAdversaria(Posicao posicao) {
-		PecaXadrez p = (PecaXadrez) getTabuleiro().peca(posicao);
-		return p != null && p.getCor() != cor;
+		return Bitboards.contem(ocupacaoAdversaria(), Bitboards.casa(posicao));
+	}
+
+	protected boolean podeOcupar(Posicao posicao) {
+		return !Bitboards.contem(ocupacaoPropria(), Bitboards.casa(posicao));
+	}
+
+	protected long ocupacaoPropria() {
+		return getTabuleiro().ocupacaoGrupo(cor.ordinal());
+	}
+
+	protected long ocupacaoAdversaria() {
+		return getTabuleiro().ocupacaoGrupo(cor.ordinal() ^ 1);
 	}
 
 }
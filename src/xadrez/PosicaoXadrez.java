@@ -31,6 +31,10 @@ public class PosicaoXadrez {
 		return new PosicaoXadrez((char) ('a' + posicao.getColuna()), 8 - posicao.getLinha());
 	}
 
+	public static PosicaoXadrez fromCasa(int casa) {
+		return new PosicaoXadrez((char) ('a' + Bitboards.coluna(casa)), 8 - Bitboards.linha(casa));
+	}
+
 	@Override
 	public String toString() {
 		return "" + coluna + linha;
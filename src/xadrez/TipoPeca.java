@@ -0,0 +1,11 @@
+package xadrez;
+
+public enum TipoPeca {
+
+	PEAO,
+	CAVALO,
+	BISPO,
+	TORRE,
+	RAINHA,
+	REI;
+}
@@ -0,0 +1,51 @@
+package xadrez;
+
+import java.util.SplittableRandom;
+
+public final class Zobrist {
+
+	private static final long[][] PECAS = new long[12][64];
+	private static final long[] ROQUE = new long[16];
+	private static final long[] EN_PASSANT = new long[8];
+	private static final long LADO;
+
+	static {
+		SplittableRandom aleatorio = new SplittableRandom(0x5EED5EEDL);
+		for (int i = 0; i < PECAS.length; i++) {
+			for (int casa = 0; casa < 64; casa++) {
+				PECAS[i][casa] = aleatorio.nextLong();
+			}
+		}
+		for (int i = 0; i < ROQUE.length; i++) {
+			ROQUE[i] = aleatorio.nextLong();
+		}
+		for (int i = 0; i < EN_PASSANT.length; i++) {
+			EN_PASSANT[i] = aleatorio.nextLong();
+		}
+		LADO = aleatorio.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	public static long peca(PecaXadrez peca, int casa) {
+		return PECAS[Bitboards.indice(peca.getTipo(), peca.getCor())][casa];
+	}
+
+	public static long peca(TipoPeca tipo, Cor cor, int casa) {
+		return PECAS[Bitboards.indice(tipo, cor)][casa];
+	}
+
+	public static long roque(int direitos) {
+		return ROQUE[direitos];
+	}
+
+	public static long enPassant(int coluna) {
+		return EN_PASSANT[coluna];
+	}
+
+	public static long lado() {
+		return LADO;
+	}
+
+}
@@ -0,0 +1,428 @@
+package xadrez.finais;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import xadrez.Ataques;
+import xadrez.Bitboards;
+import xadrez.Cor;
+import xadrez.TipoPeca;
+
+public class GeradorFinais {
+
+	// codigo por posicao: 0 = empate, n > 0 = o lado forte da mate em n - 1 meios lances
+	private static final byte ILEGAL = -1;
+	private static final int BLOCO = 1 << 14;
+	private static final TipoPeca[] PROMOCOES = { TipoPeca.RAINHA, TipoPeca.TORRE };
+
+	private static final VarHandle PALAVRA = MethodHandles.arrayElementVarHandle(long[].class);
+	private static final VarHandle CONTADOR = MethodHandles.arrayElementVarHandle(int[].class);
+
+	private final int threads;
+	private final Map<MaterialFinal, byte[]> tabelas = new EnumMap<>(MaterialFinal.class);
+
+	public GeradorFinais(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("O gerador precisa de pelo menos 1 thread");
+		}
+		this.threads = threads;
+	}
+
+	public synchronized byte[] gerar(MaterialFinal material) {
+		byte[] pronta = tabelas.get(material);
+		if (pronta != null) {
+			return pronta;
+		}
+		for (TipoPeca tipo : PROMOCOES) {
+			if (material.promocao(tipo) != null) {
+				gerar(material.promocao(tipo));
+			}
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "gerador-finais");
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			pronta = new Retrogrado(material, executor).resolver();
+		} finally {
+			executor.shutdownNow();
+		}
+		tabelas.put(material, pronta);
+		return pronta;
+	}
+
+	// bits por posicao = o suficiente para o maior codigo, empacotados em little-endian depois do cabecalho
+	public void gravar(MaterialFinal material, Path diretorio) throws IOException {
+		byte[] codigos = gerar(material);
+		int maximo = 1;
+		for (byte c : codigos) {
+			maximo = Math.max(maximo, c);
+		}
+		int bits = 32 - Integer.numberOfLeadingZeros(maximo);
+		long bytes = TabelaFinais.CABECALHO + ((long) codigos.length * bits + 7) / 8 + TabelaFinais.FOLGA;
+		ByteBuffer buffer = ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(TabelaFinais.MAGICO).put((byte) material.ordinal()).put((byte) bits).putShort((short) 0)
+				.putLong(codigos.length);
+		long acumulado = 0L;
+		int ocupados = 0;
+		for (byte c : codigos) {
+			acumulado |= (long) Math.max(c, 0) << ocupados;
+			ocupados += bits;
+			while (ocupados >= 8) {
+				buffer.put((byte) acumulado);
+				acumulado >>>= 8;
+				ocupados -= 8;
+			}
+		}
+		if (ocupados > 0) {
+			buffer.put((byte) acumulado);
+		}
+		Files.createDirectories(diretorio);
+		Files.write(diretorio.resolve(material.getArquivo()), buffer.array());
+	}
+
+	static long ataques(TipoPeca tipo, int casa, long ocupacao) {
+		switch (tipo) {
+		case PEAO:
+			return Ataques.peao(Cor.BRANCO, casa);
+		case CAVALO:
+			return Ataques.cavalo(casa);
+		case BISPO:
+			return Ataques.bispo(casa, ocupacao);
+		case TORRE:
+			return Ataques.torre(casa, ocupacao);
+		case RAINHA:
+			return Ataques.rainha(casa, ocupacao);
+		default:
+			return Ataques.rei(casa);
+		}
+	}
+
+	// analise retrograda: parte dos mates e desfaz lances nivel a nivel, entao cada posicao recebe a menor distancia
+	// para o lado forte e a maior para o lado fraco
+	private final class Retrogrado {
+
+		private final MaterialFinal material;
+		private final ExecutorService executor;
+		private final byte[] codigos;
+		private final int[] restantes;
+		private final long[] resolvidas;
+		private final List<List<Integer>> sementes = new ArrayList<>();
+
+		Retrogrado(MaterialFinal material, ExecutorService executor) {
+			this.material = material;
+			this.executor = executor;
+			codigos = new byte[material.getPosicoes()];
+			restantes = new int[material.getPosicoes() >>> 1];
+			resolvidas = new long[(material.getPosicoes() + 63) >>> 6];
+		}
+
+		byte[] resolver() {
+			List<Callable<int[]>> tarefas = new ArrayList<>();
+			for (int inicio = 0; inicio < codigos.length; inicio += BLOCO) {
+				int fim = Math.min(inicio + BLOCO, codigos.length);
+				int primeiro = inicio;
+				tarefas.add(() -> iniciar(primeiro, fim));
+			}
+			int[] nivel = juntar(tarefas);
+
+			// o nivel n tem as posicoes de codigo n; os impares sao do lado fraco a jogar, os pares do lado forte
+			int codigo = 1;
+			while (nivel.length > 0 || codigo < sementes.size()) {
+				tarefas.clear();
+				for (int inicio = 0; inicio < nivel.length; inicio += BLOCO) {
+					int[] posicoes = nivel;
+					int primeiro = inicio;
+					int fim = Math.min(inicio + BLOCO, nivel.length);
+					int atual = codigo;
+					tarefas.add(() -> desfazer(posicoes, primeiro, fim, atual));
+				}
+				int[] proximo = juntar(tarefas);
+				codigo++;
+				if (codigo < sementes.size() && !sementes.get(codigo).isEmpty()) {
+					proximo = semear(proximo, codigo);
+				}
+				nivel = proximo;
+			}
+			for (int i = 0; i < codigos.length; i++) {
+				if (codigos[i] == ILEGAL) {
+					codigos[i] = 0;
+				}
+			}
+			return codigos;
+		}
+
+		private int[] iniciar(int inicio, int fim) {
+			int[] casas = new int[material.getTotal()];
+			Lista mates = new Lista();
+			List<int[]> promocoes = new ArrayList<>();
+			for (int indice = inicio; indice < fim; indice++) {
+				material.casas(indice, casas);
+				int lado = indice & 1;
+				if (!legal(casas, lado)) {
+					codigos[indice] = ILEGAL;
+					continue;
+				}
+				long ocupacao = ocupacao(casas);
+				if (lado == 1) {
+					int lances = lancesFraco(casas, ocupacao);
+					restantes[indice >>> 1] = lances;
+					if (lances == 0 && (ataquesFortes(casas, ocupacao, -1) & Bitboards.bit(casas[1])) != 0) {
+						codigos[indice] = 1;
+						marcar(indice);
+						mates.adicionar(indice);
+					}
+				} else {
+					int promocao = promocao(casas, ocupacao);
+					if (promocao > 0) {
+						promocoes.add(new int[] { indice, promocao });
+					}
+				}
+			}
+			if (!promocoes.isEmpty()) {
+				synchronized (sementes) {
+					for (int[] p : promocoes) {
+						while (sementes.size() <= p[1]) {
+							sementes.add(new ArrayList<>());
+						}
+						sementes.get(p[1]).add(p[0]);
+					}
+				}
+			}
+			return mates.paraVetor();
+		}
+
+		private int[] desfazer(int[] nivel, int inicio, int fim, int codigo) {
+			int[] casas = new int[material.getTotal()];
+			Lista proximo = new Lista();
+			for (int i = inicio; i < fim; i++) {
+				int indice = nivel[i];
+				material.casas(indice, casas);
+				long ocupacao = ocupacao(casas);
+				if ((indice & 1) == 1) {
+					desfazerForte(casas, ocupacao, codigo, proximo);
+				} else {
+					desfazerFraco(casas, ocupacao, codigo, proximo);
+				}
+			}
+			return proximo.paraVetor();
+		}
+
+		// o lado fraco foi mateado em codigo - 1: todo lance do lado forte que chega aqui vence em codigo
+		private void desfazerForte(int[] casas, long ocupacao, int codigo, Lista proximo) {
+			for (int k = 0; k < casas.length; k++) {
+				if (k == 1) {
+					continue;
+				}
+				int casa = casas[k];
+				long origens;
+				if (k == 0) {
+					origens = Ataques.rei(casa) & ~ocupacao & ~Ataques.rei(casas[1]);
+				} else if (material.getPeca(k - 2) == TipoPeca.PEAO) {
+					origens = origensPeao(casa, ocupacao);
+				} else {
+					origens = ataques(material.getPeca(k - 2), casa, ocupacao) & ~ocupacao;
+				}
+				while (origens != 0) {
+					int origem = Long.numberOfTrailingZeros(origens);
+					origens &= origens - 1;
+					casas[k] = origem;
+					long anterior = ocupacao ^ Bitboards.bit(casa) ^ Bitboards.bit(origem);
+					if ((ataquesFortes(casas, anterior, -1) & Bitboards.bit(casas[1])) == 0) {
+						int predecessor = material.indice(0, casas);
+						if (codigos[predecessor] == 0 && marcar(predecessor)) {
+							codigos[predecessor] = (byte) (codigo + 1);
+							proximo.adicionar(predecessor);
+						}
+					}
+				}
+				casas[k] = casa;
+			}
+		}
+
+		// o lado forte vence em codigo - 1: a posicao anterior so perde quando todos os lances do rei fraco perdem
+		private void desfazerFraco(int[] casas, long ocupacao, int codigo, Lista proximo) {
+			int casa = casas[1];
+			long origens = Ataques.rei(casa) & ~ocupacao & ~Ataques.rei(casas[0]);
+			while (origens != 0) {
+				int origem = Long.numberOfTrailingZeros(origens);
+				origens &= origens - 1;
+				casas[1] = origem;
+				int predecessor = material.indice(1, casas);
+				if (codigos[predecessor] == 0 && (int) CONTADOR.getAndAdd(restantes, predecessor >>> 1, -1) == 1
+						&& marcar(predecessor)) {
+					codigos[predecessor] = (byte) (codigo + 1);
+					proximo.adicionar(predecessor);
+				}
+			}
+			casas[1] = casa;
+		}
+
+		private int[] semear(int[] nivel, int codigo) {
+			Lista proximo = new Lista();
+			for (int indice : nivel) {
+				proximo.adicionar(indice);
+			}
+			for (int indice : sementes.get(codigo)) {
+				if (codigos[indice] == 0 && marcar(indice)) {
+					codigos[indice] = (byte) codigo;
+					proximo.adicionar(indice);
+				}
+			}
+			return proximo.paraVetor();
+		}
+
+		// #movimentoEspecial promocao: o resultado vem da tabela da peca promovida, que ja foi gerada
+		private int promocao(int[] casas, long ocupacao) {
+			int melhor = 0;
+			for (int k = 2; k < casas.length; k++) {
+				int destino = casas[k] - 8;
+				if (material.getPeca(k - 2) != TipoPeca.PEAO || Bitboards.linha(casas[k]) != 1 || Bitboards.contem(ocupacao, destino)) {
+					continue;
+				}
+				for (TipoPeca tipo : PROMOCOES) {
+					MaterialFinal destinoMaterial = material.promocao(tipo);
+					int[] filho = { casas[0], casas[1], destino };
+					int codigo = tabelas.get(destinoMaterial)[destinoMaterial.indice(1, filho)];
+					if (codigo > 0 && (melhor == 0 || codigo + 1 < melhor)) {
+						melhor = codigo + 1;
+					}
+				}
+			}
+			return melhor;
+		}
+
+		private boolean legal(int[] casas, int lado) {
+			long ocupacao = 0L;
+			for (int k = 0; k < casas.length; k++) {
+				if (Bitboards.contem(ocupacao, casas[k])) {
+					return false;
+				}
+				ocupacao |= Bitboards.bit(casas[k]);
+				if (k >= 2 && material.getPeca(k - 2) == TipoPeca.PEAO && (Bitboards.linha(casas[k]) == 0 || Bitboards.linha(casas[k]) == 7)) {
+					return false;
+				}
+			}
+			if (Bitboards.contem(Ataques.rei(casas[0]), casas[1])) {
+				return false;
+			}
+			return lado == 1 || (ataquesFortes(casas, ocupacao, -1) & Bitboards.bit(casas[1])) == 0;
+		}
+
+		private int lancesFraco(int[] casas, long ocupacao) {
+			long semRei = ocupacao & ~Bitboards.bit(casas[1]);
+			long destinos = Ataques.rei(casas[1]) & ~Ataques.rei(casas[0]);
+			int total = 0;
+			while (destinos != 0) {
+				int destino = Long.numberOfTrailingZeros(destinos);
+				destinos &= destinos - 1;
+				// capturar uma peca sai da tabela, e sem material de mate o resultado eh empate
+				if ((ataquesFortes(casas, semRei, destino) & Bitboards.bit(destino)) == 0) {
+					total++;
+				}
+			}
+			return total;
+		}
+
+		private long ataquesFortes(int[] casas, long ocupacao, int ignorada) {
+			long bits = Ataques.rei(casas[0]);
+			for (int k = 2; k < casas.length; k++) {
+				if (casas[k] != ignorada) {
+					bits |= ataques(material.getPeca(k - 2), casas[k], ocupacao);
+				}
+			}
+			return bits;
+		}
+
+		private boolean marcar(int indice) {
+			long bit = 1L << indice;
+			int palavra = indice >>> 6;
+			long valor;
+			do {
+				valor = (long) PALAVRA.getVolatile(resolvidas, palavra);
+				if ((valor & bit) != 0) {
+					return false;
+				}
+			} while (!PALAVRA.compareAndSet(resolvidas, palavra, valor, valor | bit));
+			return true;
+		}
+
+		private int[] juntar(List<Callable<int[]>> tarefas) {
+			List<Future<int[]>> futuros = new ArrayList<>();
+			for (Callable<int[]> tarefa : tarefas) {
+				futuros.add(executor.submit(tarefa));
+			}
+			Lista todos = new Lista();
+			try {
+				for (Future<int[]> futuro : futuros) {
+					for (int indice : futuro.get()) {
+						todos.adicionar(indice);
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Geracao da tabela de finais interrompida", e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Falha na geracao da tabela de finais", e.getCause());
+			}
+			return todos.paraVetor();
+		}
+
+	}
+
+	private static long ocupacao(int[] casas) {
+		long bits = 0L;
+		for (int casa : casas) {
+			bits |= Bitboards.bit(casa);
+		}
+		return bits;
+	}
+
+	// o peao branco anda para a linha 0: antes estava uma casa abaixo, ou duas se acabou de sair da linha 6
+	private static long origensPeao(int casa, long ocupacao) {
+		long bits = 0L;
+		int uma = casa + 8;
+		if (Bitboards.linha(uma) <= 6 && !Bitboards.contem(ocupacao, uma)) {
+			bits |= Bitboards.bit(uma);
+			if (Bitboards.linha(casa) == 4 && !Bitboards.contem(ocupacao, casa + 16)) {
+				bits |= Bitboards.bit(casa + 16);
+			}
+		}
+		return bits;
+	}
+
+	private static final class Lista {
+
+		private int[] valores = new int[64];
+		private int tamanho;
+
+		void adicionar(int valor) {
+			if (tamanho == valores.length) {
+				valores = Arrays.copyOf(valores, tamanho * 2);
+			}
+			valores[tamanho++] = valor;
+		}
+
+		int[] paraVetor() {
+			return Arrays.copyOf(valores, tamanho);
+		}
+
+	}
+
+}
@@ -0,0 +1,96 @@
+package xadrez.finais;
+
+import xadrez.Cor;
+import xadrez.PartidaXadrez;
+import xadrez.TipoPeca;
+
+public enum MaterialFinal {
+
+	KQK(TipoPeca.RAINHA),
+	KRK(TipoPeca.TORRE),
+	KPK(TipoPeca.PEAO),
+	KBNK(TipoPeca.BISPO, TipoPeca.CAVALO);
+
+	private final TipoPeca[] pecas;
+
+	private MaterialFinal(TipoPeca... pecas) {
+		this.pecas = pecas;
+	}
+
+	// pecas do lado forte alem do rei, na ordem usada pelo indice
+	public int getPecas() {
+		return pecas.length;
+	}
+
+	public TipoPeca getPeca(int i) {
+		return pecas[i];
+	}
+
+	public int getTotal() {
+		return pecas.length + 2;
+	}
+
+	public int getPosicoes() {
+		return 2 << (6 * getTotal());
+	}
+
+	public String getArquivo() {
+		return name() + ".xtb";
+	}
+
+	public int quantidade(TipoPeca tipo) {
+		int total = 0;
+		for (TipoPeca p : pecas) {
+			if (p == tipo) {
+				total++;
+			}
+		}
+		return total;
+	}
+
+	// #movimentoEspecial promocao: so rainha e torre levam a outra tabela, bispo e cavalo sozinhos empatam
+	public MaterialFinal promocao(TipoPeca tipo) {
+		if (this != KPK) {
+			return null;
+		}
+		if (tipo == TipoPeca.RAINHA) return KQK;
+		if (tipo == TipoPeca.TORRE) return KRK;
+		return null;
+	}
+
+	// casas[0] = rei forte, casas[1] = rei fraco, depois as pecas; lado 0 = forte joga, 1 = fraco joga
+	public int indice(int lado, int[] casas) {
+		int indice = 0;
+		for (int k = casas.length - 1; k >= 0; k--) {
+			indice = (indice << 6) | casas[k];
+		}
+		return (indice << 1) | lado;
+	}
+
+	public void casas(int indice, int[] casas) {
+		indice >>>= 1;
+		for (int k = 0; k < casas.length; k++) {
+			casas[k] = indice & 63;
+			indice >>>= 6;
+		}
+	}
+
+	public static MaterialFinal identificar(PartidaXadrez partida, Cor forte) {
+		Cor fraco = (forte == Cor.BRANCO) ? Cor.PRETO : Cor.BRANCO;
+		for (MaterialFinal material : values()) {
+			boolean igual = true;
+			for (TipoPeca tipo : TipoPeca.values()) {
+				if (tipo != TipoPeca.REI
+						&& (partida.getQuantidade(tipo, fraco) != 0 || partida.getQuantidade(tipo, forte) != material.quantidade(tipo))) {
+					igual = false;
+					break;
+				}
+			}
+			if (igual) {
+				return material;
+			}
+		}
+		return null;
+	}
+
+}
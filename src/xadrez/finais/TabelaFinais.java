@@ -0,0 +1,122 @@
+package xadrez.finais;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import xadrez.Cor;
+import xadrez.PartidaXadrez;
+import xadrez.TipoPeca;
+
+public class TabelaFinais implements Closeable {
+
+	public static final int FORA_DA_TABELA = Integer.MIN_VALUE;
+
+	// cabecalho little-endian: "XTB1", material, bits por posicao, reservado (2), numero de posicoes (8)
+	static final int MAGICO = 0x31425458;
+	static final int CABECALHO = 16;
+	static final int FOLGA = 2;
+
+	private static final int PECAS_MAXIMO = 4;
+
+	private final FileChannel[] canais = new FileChannel[MaterialFinal.values().length];
+	private final MappedByteBuffer[] mapas = new MappedByteBuffer[MaterialFinal.values().length];
+	private final int[] bits = new int[MaterialFinal.values().length];
+
+	public TabelaFinais(Path diretorio) throws IOException {
+		try {
+			for (MaterialFinal material : MaterialFinal.values()) {
+				Path arquivo = diretorio.resolve(material.getArquivo());
+				if (!Files.isRegularFile(arquivo)) {
+					continue;
+				}
+				// o canal fica aberto com o mapeamento, como no livro, e os dois sao soltos no close
+				FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+				canais[material.ordinal()] = canal;
+				MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+				mapa.order(ByteOrder.LITTLE_ENDIAN);
+				int largura = (mapa.capacity() >= CABECALHO) ? mapa.get(5) : 0;
+				if (mapa.capacity() < CABECALHO || mapa.getInt(0) != MAGICO || mapa.get(4) != material.ordinal()
+						|| mapa.getLong(8) != material.getPosicoes() || largura < 1 || largura > 8
+						|| mapa.capacity() < CABECALHO + ((long) material.getPosicoes() * largura + 7) / 8 + FOLGA) {
+					throw new IOException("Arquivo de tabela de finais invalido: " + arquivo);
+				}
+				mapas[material.ordinal()] = mapa;
+				bits[material.ordinal()] = largura;
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	public boolean possui(MaterialFinal material) {
+		return mapas[material.ordinal()] != null;
+	}
+
+	// do ponto de vista de quem joga: 0 = empate, n > 0 = da mate em n - 1 meios lances, n < 0 = leva mate em -n - 1
+	public int sondar(PartidaXadrez partida) {
+		if (Long.bitCount(partida.getOcupacao()) > PECAS_MAXIMO || partida.getDireitosRoque() != 0) {
+			return FORA_DA_TABELA;
+		}
+		for (Cor forte : Cor.values()) {
+			MaterialFinal material = MaterialFinal.identificar(partida, forte);
+			if (material == null || mapas[material.ordinal()] == null) {
+				continue;
+			}
+			// as tabelas sao geradas com as brancas fortes: com as pretas fortes o tabuleiro eh espelhado
+			Cor fraco = (forte == Cor.BRANCO) ? Cor.PRETO : Cor.BRANCO;
+			int espelho = (forte == Cor.BRANCO) ? 0 : 56;
+			int indice = 0;
+			for (int k = material.getPecas() - 1; k >= 0; k--) {
+				indice = (indice << 6) | (Long.numberOfTrailingZeros(partida.bitboard(material.getPeca(k), forte)) ^ espelho);
+			}
+			indice = (indice << 6) | (Long.numberOfTrailingZeros(partida.bitboard(TipoPeca.REI, fraco)) ^ espelho);
+			indice = (indice << 6) | (Long.numberOfTrailingZeros(partida.bitboard(TipoPeca.REI, forte)) ^ espelho);
+			boolean forteJoga = partida.getJogadorAtual() == forte;
+			int codigo = ler(material, (indice << 1) | (forteJoga ? 0 : 1));
+			if (codigo == 0) {
+				return 0;
+			}
+			return forteJoga ? codigo : -codigo;
+		}
+		return FORA_DA_TABELA;
+	}
+
+	// depois do close a tabela responde FORA_DA_TABELA para tudo
+	@Override
+	public void close() throws IOException {
+		IOException erro = null;
+		for (int i = 0; i < canais.length; i++) {
+			mapas[i] = null;
+			if (canais[i] != null) {
+				try {
+					canais[i].close();
+				} catch (IOException e) {
+					erro = e;
+				}
+				canais[i] = null;
+			}
+		}
+		if (erro != null) {
+			throw erro;
+		}
+	}
+
+	public static int distancia(int resultado) {
+		return Math.abs(resultado) - 1;
+	}
+
+	private int ler(MaterialFinal material, int indice) {
+		int largura = bits[material.ordinal()];
+		long bit = (long) indice * largura;
+		int palavra = mapas[material.ordinal()].getShort(CABECALHO + (int) (bit >>> 3)) & 0xFFFF;
+		return (palavra >>> (bit & 7)) & ((1 << largura) - 1);
+	}
+
+}
@@ -0,0 +1,42 @@
+package xadrez.motor;
+
+import xadrez.Cor;
+import xadrez.PartidaXadrez;
+import xadrez.TabelasPosicionais;
+import xadrez.TipoPeca;
+
+public class Avaliacao {
+
+	private static final int[] VALORES = { 100, 320, 330, 500, 900, 0 };
+
+	public static int valor(TipoPeca tipo) {
+		return VALORES[tipo.ordinal()];
+	}
+
+	public static int avaliar(PartidaXadrez partida) {
+		long brancos = partida.bitboard(TipoPeca.PEAO, Cor.BRANCO);
+		long pretos = partida.bitboard(TipoPeca.PEAO, Cor.PRETO);
+		int estrutura = EstruturaPeoes.avaliar(brancos, pretos);
+		return avaliar(partida, EstruturaPeoes.meioJogo(estrutura), EstruturaPeoes.finalJogo(estrutura));
+	}
+
+	public static int avaliar(PartidaXadrez partida, TabelaPeoes peoes) {
+		int entrada = peoes.sondar(partida);
+		return avaliar(partida, peoes.meioJogo(entrada), peoes.finalJogo(entrada));
+	}
+
+	// interpola entre meio-jogo e final pela fase; as somas ja vem prontas da partida e os peoes do cache
+	private static int avaliar(PartidaXadrez partida, int peoesMeioJogo, int peoesFinal) {
+		int meioJogo = partida.getMeioJogo() + peoesMeioJogo + escudo(partida, Cor.BRANCO) - escudo(partida, Cor.PRETO);
+		int finalJogo = partida.getFinalJogo() + peoesFinal;
+		int fase = Math.min(partida.getFase(), TabelasPosicionais.FASE_MAXIMA);
+		int total = (meioJogo * fase + finalJogo * (TabelasPosicionais.FASE_MAXIMA - fase)) / TabelasPosicionais.FASE_MAXIMA;
+		return (partida.getJogadorAtual() == Cor.BRANCO) ? total : -total;
+	}
+
+	private static int escudo(PartidaXadrez partida, Cor cor) {
+		int casaRei = Long.numberOfTrailingZeros(partida.bitboard(TipoPeca.REI, cor));
+		return EstruturaPeoes.escudo(partida.bitboard(TipoPeca.PEAO, cor), casaRei, cor);
+	}
+
+}
@@ -0,0 +1,449 @@
+package xadrez.motor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import xadrez.Cor;
+import xadrez.ListaMovimentos;
+import xadrez.PartidaXadrez;
+import xadrez.TipoPeca;
+import xadrez.finais.TabelaFinais;
+
+public class Busca {
+
+	public static final int INFINITO = 32000;
+	public static final int MATE = 31000;
+	public static final int PLY_MAXIMO = 128;
+
+	private static final int MATE_LIMITE = MATE - PLY_MAXIMO;
+	private static final int HISTORIA_MAXIMA = 1 << 20;
+	private static final int ENTRADAS_PEOES = 1 << 14;
+
+	private PartidaXadrez partida;
+	private final TabelaTransposicao tabela;
+	private final ListaMovimentos[] listas = new ListaMovimentos[PLY_MAXIMO];
+	private final OrdenadorMovimentos[] ordenadores = new OrdenadorMovimentos[PLY_MAXIMO];
+	private final int[][] killers = new int[PLY_MAXIMO][2];
+	private final int[][] historia = new int[2][64 * 64];
+	private final TabelaPeoes peoes = new TabelaPeoes(ENTRADAS_PEOES);
+	private final int[][] pv = new int[PLY_MAXIMO + 1][PLY_MAXIMO + 1];
+	private final int[] tamanhoPv = new int[PLY_MAXIMO + 1];
+	private final int[][] reducoes = new int[64][64];
+
+	private volatile boolean parar;
+	private AtomicBoolean parada;
+	private boolean interrompida;
+	private long nos;
+	private long limiteNos;
+	private long prazo;
+	private int melhorRaiz;
+	private int profundidadeInicial = 1;
+	private boolean auxiliar;
+	private boolean envelhecerTabela = true;
+	private LivroAberturas livro;
+	private TabelaFinais finais;
+	private ParametrosBusca parametros = new ParametrosBusca();
+	private Consumer<ResultadoBusca> ouvinte;
+
+	public Busca(PartidaXadrez partida) {
+		this(partida, null);
+	}
+
+	public Busca(PartidaXadrez partida, TabelaTransposicao tabela) {
+		this.partida = partida;
+		this.tabela = tabela;
+		for (int i = 0; i < PLY_MAXIMO; i++) {
+			listas[i] = new ListaMovimentos();
+			ordenadores[i] = new OrdenadorMovimentos();
+		}
+	}
+
+	// reaproveita as tabelas e listas desta busca em outra partida
+	public void setPartida(PartidaXadrez partida) {
+		this.partida = partida;
+	}
+
+	// com a tabela dividida entre buscas independentes, envelhecer a cada uma descartaria o trabalho das outras
+	public void setEnvelhecerTabela(boolean envelhecerTabela) {
+		this.envelhecerTabela = envelhecerTabela;
+	}
+
+	public void setOuvinte(Consumer<ResultadoBusca> ouvinte) {
+		this.ouvinte = ouvinte;
+	}
+
+	public void setLivro(LivroAberturas livro) {
+		this.livro = livro;
+	}
+
+	public void setFinais(TabelaFinais finais) {
+		this.finais = finais;
+	}
+
+	public void setParametros(ParametrosBusca parametros) {
+		this.parametros = parametros;
+	}
+
+	public ParametrosBusca getParametros() {
+		return parametros;
+	}
+
+	public void parar() {
+		parar = true;
+	}
+
+	public long getNos() {
+		return nos;
+	}
+
+	public TabelaPeoes getTabelaPeoes() {
+		return peoes;
+	}
+
+	// auxiliar do lazy SMP: comeca em outra profundidade, nao envelhece a tabela e so para quando mandado
+	void setAuxiliar(int profundidadeInicial) {
+		this.profundidadeInicial = profundidadeInicial;
+		this.auxiliar = true;
+	}
+
+	// sinal de parada de quem coordena varias buscas; buscar() nao o limpa, entao um parar dado antes
+	// da thread comecar nao se perde
+	void setParada(AtomicBoolean parada) {
+		this.parada = parada;
+	}
+
+	public ResultadoBusca buscar(LimitesBusca limites) {
+		long inicio = System.currentTimeMillis();
+		parar = false;
+		interrompida = false;
+		nos = 0L;
+		melhorRaiz = 0;
+		for (int i = 0; i < PLY_MAXIMO; i++) {
+			killers[i][0] = 0;
+			killers[i][1] = 0;
+		}
+		for (int[] h : historia) {
+			Arrays.fill(h, 0);
+		}
+		calcularReducoes();
+		limiteNos = auxiliar ? 0L : limites.getNos();
+		prazo = (limites.getTempoMs() > 0 && !auxiliar) ? inicio + limites.getTempoMs() : 0L;
+		if (tabela != null && !auxiliar && envelhecerTabela) {
+			tabela.novaBusca();
+		}
+
+		if (livro != null && !auxiliar) {
+			int movimento = livro.movimento(partida);
+			if (movimento != 0) {
+				return new ResultadoBusca(movimento, 0, 0, 0L, System.currentTimeMillis() - inicio, new int[] { movimento });
+			}
+		}
+
+		ListaMovimentos raiz = new ListaMovimentos();
+		partida.gerarMovimentosLegais(raiz);
+		ResultadoBusca resultado = new ResultadoBusca((raiz.getTamanho() > 0) ? raiz.get(0) : 0, 0, 0, 0L, 0L, new int[0]);
+		if (raiz.getTamanho() == 0) {
+			return resultado;
+		}
+		// com a raiz na tabela de finais todos os filhos tem valor exato, entao uma iteracao basta
+		boolean raizNaTabela = finais != null && finais.sondar(partida) != TabelaFinais.FORA_DA_TABELA;
+
+		for (int profundidade = profundidadeInicial; profundidade <= limites.getProfundidade(); profundidade++) {
+			int valor = negamax(profundidade, -INFINITO, INFINITO, 0, false);
+			if (interrompida) {
+				break;
+			}
+			long tempo = System.currentTimeMillis() - inicio;
+			melhorRaiz = pv[0][0];
+			resultado = new ResultadoBusca(melhorRaiz, valor, profundidade, nos, tempo, Arrays.copyOf(pv[0], tamanhoPv[0]));
+			if (ouvinte != null) {
+				ouvinte.accept(resultado);
+			}
+			if (raiz.getTamanho() == 1 || raizNaTabela || (prazo != 0L && tempo * 2 > limites.getTempoMs())) {
+				break;
+			}
+			if (Math.abs(valor) >= MATE_LIMITE && MATE - Math.abs(valor) <= profundidade) {
+				break;
+			}
+		}
+		return resultado;
+	}
+
+	private int negamax(int profundidade, int alfa, int beta, int ply, boolean depoisDoNulo) {
+		if (profundidade <= 0) {
+			return quiescencia(alfa, beta, ply);
+		}
+		tamanhoPv[ply] = 0;
+		nos++;
+		if ((nos & 1023) == 0) {
+			verificarLimites();
+		}
+		if (interrompida) {
+			return 0;
+		}
+		// repeticao conta ja na primeira volta: se a posicao se repete uma vez, pode se repetir de novo
+		if (ply > 0 && (partida.regraCinquentaLances() || partida.repeticao(1) || partida.materialInsuficiente())) {
+			return 0;
+		}
+		if (finais != null && ply > 0) {
+			int resultado = finais.sondar(partida);
+			if (resultado != TabelaFinais.FORA_DA_TABELA) {
+				return valorFinal(resultado, ply);
+			}
+		}
+		if (ply >= PLY_MAXIMO - 1) {
+			return Avaliacao.avaliar(partida, peoes);
+		}
+
+		long chave = partida.getChave();
+		int movimentoHash = 0;
+		if (tabela != null) {
+			long dado = tabela.sondar(chave);
+			if (dado != 0L) {
+				movimentoHash = TabelaTransposicao.movimento(dado);
+				if (ply > 0 && TabelaTransposicao.profundidade(dado) >= profundidade) {
+					int valor = valorDaTabela(TabelaTransposicao.valor(dado), ply);
+					int tipo = TabelaTransposicao.tipo(dado);
+					if (tipo == TabelaTransposicao.EXATO
+							|| (tipo == TabelaTransposicao.LIMITE_INFERIOR && valor >= beta)
+							|| (tipo == TabelaTransposicao.LIMITE_SUPERIOR && valor <= alfa)) {
+						return valor;
+					}
+				}
+			}
+		}
+
+		boolean emXeque = partida.getXeque();
+		boolean janelaAberta = beta - alfa > 1;
+		int estatica = (emXeque || ply == 0) ? -INFINITO : Avaliacao.avaliar(partida, peoes);
+
+		// futilidade reversa: tao acima de beta que nem um ply de margem por profundidade devolve a vantagem
+		if (parametros.isFutilidadeReversa() && !janelaAberta && estatica > -INFINITO
+				&& profundidade <= parametros.getProfundidadeMaximaReversa() && Math.abs(beta) < MATE_LIMITE
+				&& estatica - parametros.getMargemReversa() * profundidade >= beta) {
+			return estatica;
+		}
+
+		// lance nulo: se passar a vez ainda corta numa busca reduzida, o lance de verdade tambem cortaria;
+		// sem pecas alem de peoes o zugzwang torna isso falso, entao fica de fora
+		if (parametros.isMovimentoNulo() && !janelaAberta && !depoisDoNulo && estatica >= beta
+				&& profundidade >= parametros.getProfundidadeMinimaNulo() && Math.abs(beta) < MATE_LIMITE
+				&& temPecas(partida.getJogadorAtual())) {
+			int reducao = parametros.getReducaoNulo() + profundidade / parametros.getDivisorNuloProfundo();
+			partida.fazerMovimentoNulo();
+			int valor = -negamax(profundidade - 1 - reducao, -beta, -beta + 1, ply + 1, true);
+			partida.desfazerMovimentoNulo();
+			if (interrompida) {
+				return 0;
+			}
+			if (valor >= beta) {
+				return (valor >= MATE_LIMITE) ? beta : valor;
+			}
+		}
+
+		ListaMovimentos lista = listas[ply];
+		int total = partida.gerarMovimentosLegais(lista);
+		if (total == 0) {
+			return emXeque ? -MATE + ply : 0;
+		}
+		boolean futil = parametros.isFutilidade() && estatica > -INFINITO && profundidade <= parametros.getProfundidadeMaximaFutilidade()
+				&& Math.abs(alfa) < MATE_LIMITE && estatica + parametros.getMargemFutilidade() * profundidade <= alfa;
+		int[] historiaLado = historia[partida.getJogadorAtual().ordinal()];
+		OrdenadorMovimentos ordenador = ordenadores[ply];
+		ordenador.iniciar(partida, lista, (ply == 0 && melhorRaiz != 0) ? melhorRaiz : movimentoHash, killers[ply][0],
+				killers[ply][1], historiaLado);
+
+		int alfaOriginal = alfa;
+		int melhor = -INFINITO;
+		int melhorMovimento = 0;
+		int jogados = 0;
+		int movimento;
+		while ((movimento = ordenador.proximo()) != 0) {
+			partida.fazerMovimento(movimento);
+			boolean quieto = !OrdenadorMovimentos.tatico(movimento) && !partida.getXeque();
+			// futilidade: perto das folhas, um lance quieto nao tira a avaliacao de tao abaixo de alfa
+			if (futil && quieto && jogados > 0) {
+				partida.desfazerMovimento(movimento);
+				continue;
+			}
+			int valor;
+			if (jogados == 0) {
+				valor = -negamax(profundidade - 1, -beta, -alfa, ply + 1, false);
+			} else {
+				// os demais lances so precisam provar que nao passam de alfa, com janela nula; lances quietos
+				// que o ordenador entregou tarde ainda sao olhados mais raso (reducoes tardias)
+				int reducao = 0;
+				if (parametros.isReducoesTardias() && quieto && !emXeque && jogados >= parametros.getLancesAntesReducao()
+						&& profundidade >= parametros.getProfundidadeMinimaReducao()) {
+					reducao = Math.max(0, Math.min(reducoes[Math.min(profundidade, 63)][Math.min(jogados, 63)], profundidade - 2));
+				}
+				valor = -negamax(profundidade - 1 - reducao, -alfa - 1, -alfa, ply + 1, false);
+				if (valor > alfa && reducao > 0 && !interrompida) {
+					valor = -negamax(profundidade - 1, -alfa - 1, -alfa, ply + 1, false);
+				}
+				if (valor > alfa && valor < beta && !interrompida) {
+					valor = -negamax(profundidade - 1, -beta, -alfa, ply + 1, false);
+				}
+			}
+			partida.desfazerMovimento(movimento);
+			jogados++;
+			if (interrompida) {
+				return 0;
+			}
+			if (valor > melhor) {
+				melhor = valor;
+				melhorMovimento = movimento;
+				if (valor > alfa) {
+					alfa = valor;
+					atualizarPv(ply, movimento);
+					if (alfa >= beta) {
+						if (!OrdenadorMovimentos.tatico(movimento)) {
+							registrarCorte(movimento, profundidade, ply, historiaLado);
+						}
+						break;
+					}
+				}
+			}
+		}
+
+		if (tabela != null) {
+			int tipo = (melhor <= alfaOriginal) ? TabelaTransposicao.LIMITE_SUPERIOR
+					: (melhor >= beta) ? TabelaTransposicao.LIMITE_INFERIOR : TabelaTransposicao.EXATO;
+			tabela.gravar(chave, melhorMovimento, valorParaTabela(melhor, ply), profundidade, tipo);
+		}
+		return melhor;
+	}
+
+	// so capturas a partir da avaliacao parada, cortando as que a SEE diz que perdem material;
+	// em xeque nao ha parada e todas as evasoes sao jogadas
+	private int quiescencia(int alfa, int beta, int ply) {
+		tamanhoPv[ply] = 0;
+		nos++;
+		if ((nos & 1023) == 0) {
+			verificarLimites();
+		}
+		if (interrompida) {
+			return 0;
+		}
+		// capturas nao repetem posicao, mas podem deixar so material que nao da mate
+		if (partida.materialInsuficiente()) {
+			return 0;
+		}
+		if (finais != null) {
+			int resultado = finais.sondar(partida);
+			if (resultado != TabelaFinais.FORA_DA_TABELA) {
+				return valorFinal(resultado, ply);
+			}
+		}
+		if (ply >= PLY_MAXIMO - 1) {
+			return Avaliacao.avaliar(partida, peoes);
+		}
+
+		ListaMovimentos lista = listas[ply];
+		OrdenadorMovimentos ordenador = ordenadores[ply];
+		int[] historiaLado = historia[partida.getJogadorAtual().ordinal()];
+		boolean emXeque = partida.getXeque();
+		int melhor;
+		if (emXeque) {
+			if (partida.gerarMovimentosLegais(lista) == 0) {
+				return -MATE + ply;
+			}
+			ordenador.iniciar(partida, lista, 0, 0, 0, historiaLado);
+			melhor = -INFINITO;
+		} else {
+			melhor = Avaliacao.avaliar(partida, peoes);
+			if (melhor >= beta) {
+				return melhor;
+			}
+			alfa = Math.max(alfa, melhor);
+			partida.gerarCapturasLegais(lista);
+			ordenador.iniciarQuiescencia(partida, lista, historiaLado);
+		}
+
+		int movimento;
+		while ((movimento = ordenador.proximo()) != 0) {
+			// subpromocoes ficam de fora, so a dama interessa aqui
+			if (!emXeque && !OrdenadorMovimentos.tatico(movimento)) {
+				continue;
+			}
+			partida.fazerMovimento(movimento);
+			int valor = -quiescencia(-beta, -alfa, ply + 1);
+			partida.desfazerMovimento(movimento);
+			if (interrompida) {
+				return 0;
+			}
+			if (valor > melhor) {
+				melhor = valor;
+				if (valor > alfa) {
+					alfa = valor;
+					atualizarPv(ply, movimento);
+					if (alfa >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return melhor;
+	}
+
+	private void calcularReducoes() {
+		for (int profundidade = 1; profundidade < 64; profundidade++) {
+			for (int lance = 1; lance < 64; lance++) {
+				reducoes[profundidade][lance] = (int) (parametros.getReducaoBase()
+						+ Math.log(profundidade) * Math.log(lance) / parametros.getReducaoDivisor());
+			}
+		}
+	}
+
+	private boolean temPecas(Cor cor) {
+		return (partida.bitboard(TipoPeca.CAVALO, cor) | partida.bitboard(TipoPeca.BISPO, cor)
+				| partida.bitboard(TipoPeca.TORRE, cor) | partida.bitboard(TipoPeca.RAINHA, cor)) != 0;
+	}
+
+	private void verificarLimites() {
+		if (parar || (parada != null && parada.get()) || (limiteNos > 0 && nos >= limiteNos) || (prazo != 0L && System.currentTimeMillis() >= prazo)) {
+			interrompida = true;
+		}
+	}
+
+	private void atualizarPv(int ply, int movimento) {
+		pv[ply][0] = movimento;
+		System.arraycopy(pv[ply + 1], 0, pv[ply], 1, tamanhoPv[ply + 1]);
+		tamanhoPv[ply] = tamanhoPv[ply + 1] + 1;
+	}
+
+	// lance quieto que cortou: vira killer deste ply e ganha peso no historico do lado que jogou
+	private void registrarCorte(int movimento, int profundidade, int ply, int[] historiaLado) {
+		if (killers[ply][0] != movimento) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = movimento;
+		}
+		int indice = OrdenadorMovimentos.indiceHistoria(movimento);
+		historiaLado[indice] += profundidade * profundidade;
+		if (historiaLado[indice] >= HISTORIA_MAXIMA) {
+			for (int i = 0; i < historiaLado.length; i++) {
+				historiaLado[i] >>= 1;
+			}
+		}
+	}
+
+	private static int valorFinal(int resultado, int ply) {
+		if (resultado == 0) return 0;
+		int distancia = ply + TabelaFinais.distancia(resultado);
+		return (resultado > 0) ? MATE - distancia : -MATE + distancia;
+	}
+
+	private static int valorParaTabela(int valor, int ply) {
+		if (valor >= MATE_LIMITE) return valor + ply;
+		if (valor <= -MATE_LIMITE) return valor - ply;
+		return valor;
+	}
+
+	private static int valorDaTabela(int valor, int ply) {
+		if (valor >= MATE_LIMITE) return valor - ply;
+		if (valor <= -MATE_LIMITE) return valor + ply;
+		return valor;
+	}
+
+}
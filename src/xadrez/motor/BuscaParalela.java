@@ -0,0 +1,148 @@
+package xadrez.motor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import xadrez.PartidaXadrez;
+import xadrez.finais.TabelaFinais;
+
+public class BuscaParalela {
+
+	private PartidaXadrez partida;
+	private final TabelaTransposicao tabela;
+	private final int threads;
+	private final ExecutorService executor;
+	private final List<Busca> auxiliares = new ArrayList<>();
+	private final AtomicBoolean parada = new AtomicBoolean();
+
+	private Consumer<ResultadoBusca> ouvinte;
+	private LivroAberturas livro;
+	private TabelaFinais finais;
+	private ParametrosBusca parametros = new ParametrosBusca();
+	private long nos;
+
+	public BuscaParalela(PartidaXadrez partida, TabelaTransposicao tabela, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("A busca precisa de pelo menos 1 thread");
+		}
+		if (tabela == null) {
+			throw new IllegalArgumentException("A busca paralela precisa de uma tabela de transposicao compartilhada");
+		}
+		this.partida = partida;
+		this.tabela = tabela;
+		this.threads = threads;
+		executor = (threads > 1) ? Executors.newFixedThreadPool(threads - 1, r -> {
+			Thread t = new Thread(r, "busca-auxiliar");
+			t.setDaemon(true);
+			return t;
+		}) : null;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	// a mesma busca, com o pool de threads, serve a varias posicoes
+	public void setPartida(PartidaXadrez partida) {
+		this.partida = partida;
+	}
+
+	public void setOuvinte(Consumer<ResultadoBusca> ouvinte) {
+		this.ouvinte = ouvinte;
+	}
+
+	public void setLivro(LivroAberturas livro) {
+		this.livro = livro;
+	}
+
+	public void setFinais(TabelaFinais finais) {
+		this.finais = finais;
+	}
+
+	public void setParametros(ParametrosBusca parametros) {
+		this.parametros = parametros;
+	}
+
+	// arma a busca seguinte; quem a lanca chama isto antes de entregar a thread, entao um parar() que
+	// chegue enquanto ela ainda esta comecando nao se perde
+	public void preparar() {
+		parada.set(false);
+	}
+
+	public void parar() {
+		parada.set(true);
+	}
+
+	public long getNos() {
+		return nos;
+	}
+
+	public ResultadoBusca buscar(LimitesBusca limites) {
+		if (livro != null) {
+			int movimento = livro.movimento(partida);
+			if (movimento != 0) {
+				nos = 0L;
+				return new ResultadoBusca(movimento, 0, 0, 0L, 0L, new int[] { movimento });
+			}
+		}
+
+		// buscar() nunca limpa a parada, so preparar(); todas as buscas olham o mesmo sinal
+		Busca busca = new Busca(partida, tabela);
+		busca.setParada(parada);
+		busca.setOuvinte(ouvinte);
+		busca.setFinais(finais);
+		busca.setParametros(parametros);
+
+		// cada auxiliar joga numa copia propria da partida; so a tabela eh compartilhada
+		auxiliares.clear();
+		List<Future<ResultadoBusca>> tarefas = new ArrayList<>();
+		for (int i = 1; i < threads; i++) {
+			Busca auxiliar = new Busca(new PartidaXadrez(partida), tabela);
+			auxiliar.setAuxiliar(1 + i % 3);
+			auxiliar.setParada(parada);
+			auxiliar.setFinais(finais);
+			auxiliar.setParametros(parametros);
+			auxiliares.add(auxiliar);
+		}
+		for (Busca auxiliar : auxiliares) {
+			tarefas.add(executor.submit(() -> auxiliar.buscar(limites)));
+		}
+
+		ResultadoBusca resultado;
+		try {
+			resultado = busca.buscar(limites);
+		} finally {
+			parada.set(true);
+			nos = busca.getNos();
+			for (int i = 0; i < tarefas.size(); i++) {
+				aguardar(tarefas.get(i));
+				nos += auxiliares.get(i).getNos();
+			}
+		}
+		return new ResultadoBusca(resultado.getMelhorMovimento(), resultado.getValor(), resultado.getProfundidade(), nos,
+				resultado.getTempoMs(), resultado.getPv());
+	}
+
+	public void encerrar() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void aguardar(Future<ResultadoBusca> tarefa) {
+		try {
+			tarefa.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Falha numa thread auxiliar da busca", e.getCause());
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+package xadrez.motor;
+
+import xadrez.Ataques;
+import xadrez.Bitboards;
+import xadrez.Cor;
+
+// termos de estrutura de peoes, do ponto de vista das brancas; meio-jogo e final vem juntos num int
+final class EstruturaPeoes {
+
+	private static final int DOBRADO = pontuacao(-11, -25);
+	private static final int ISOLADO = pontuacao(-12, -14);
+	private static final int ATRASADO = pontuacao(-8, -11);
+	private static final int ESCUDO = 10;
+	private static final int[] PASSADO_MEIO_JOGO = { 0, 0, 5, 10, 20, 35, 60, 0 };
+	private static final int[] PASSADO_FINAL = { 0, 10, 15, 25, 45, 75, 120, 0 };
+
+	private static final long[] COLUNA = new long[8];
+	private static final long[] ADJACENTES = new long[8];
+	private static final long[][] FRENTE = new long[2][64];
+	private static final long[][] APOIO = new long[2][64];
+	private static final long[][] ESCUDO_REI = new long[2][64];
+
+	static {
+		for (int coluna = 0; coluna < 8; coluna++) {
+			for (int linha = 0; linha < 8; linha++) {
+				COLUNA[coluna] |= Bitboards.bit(Bitboards.casa(linha, coluna));
+			}
+		}
+		for (int coluna = 0; coluna < 8; coluna++) {
+			ADJACENTES[coluna] = ((coluna > 0) ? COLUNA[coluna - 1] : 0L) | ((coluna < 7) ? COLUNA[coluna + 1] : 0L);
+		}
+		for (int casa = 0; casa < 64; casa++) {
+			int linha = Bitboards.linha(casa);
+			int coluna = Bitboards.coluna(casa);
+			long vizinhas = COLUNA[coluna] | ADJACENTES[coluna];
+			for (int outra = 0; outra < 64; outra++) {
+				long bit = Bitboards.bit(outra);
+				int l = Bitboards.linha(outra);
+				// as brancas andam para a linha 0, as pretas para a linha 7
+				if ((vizinhas & bit) != 0 && l < linha) FRENTE[Cor.BRANCO.ordinal()][casa] |= bit;
+				if ((vizinhas & bit) != 0 && l > linha) FRENTE[Cor.PRETO.ordinal()][casa] |= bit;
+				if ((ADJACENTES[coluna] & bit) != 0 && l >= linha) APOIO[Cor.BRANCO.ordinal()][casa] |= bit;
+				if ((ADJACENTES[coluna] & bit) != 0 && l <= linha) APOIO[Cor.PRETO.ordinal()][casa] |= bit;
+				if ((vizinhas & bit) != 0 && l < linha && l >= linha - 2) ESCUDO_REI[Cor.BRANCO.ordinal()][casa] |= bit;
+				if ((vizinhas & bit) != 0 && l > linha && l <= linha + 2) ESCUDO_REI[Cor.PRETO.ordinal()][casa] |= bit;
+			}
+		}
+	}
+
+	private EstruturaPeoes() {
+	}
+
+	static int pontuacao(int meioJogo, int finalJogo) {
+		return (meioJogo << 16) + finalJogo;
+	}
+
+	static int meioJogo(int pontuacao) {
+		return (pontuacao + 0x8000) >> 16;
+	}
+
+	static int finalJogo(int pontuacao) {
+		return (short) pontuacao;
+	}
+
+	static int avaliar(long brancos, long pretos) {
+		return avaliar(brancos, pretos, Cor.BRANCO) - avaliar(pretos, brancos, Cor.PRETO);
+	}
+
+	static long passados(long brancos, long pretos) {
+		return passados(brancos, pretos, Cor.BRANCO) | passados(pretos, brancos, Cor.PRETO);
+	}
+
+	// peoes proprios nas duas linhas a frente do rei, so conta no meio-jogo
+	static int escudo(long peoes, int casaRei, Cor cor) {
+		return ESCUDO * Long.bitCount(peoes & ESCUDO_REI[cor.ordinal()][casaRei]);
+	}
+
+	private static int avaliar(long proprios, long adversarios, Cor cor) {
+		int total = 0;
+		for (int coluna = 0; coluna < 8; coluna++) {
+			int naColuna = Long.bitCount(proprios & COLUNA[coluna]);
+			if (naColuna > 1) {
+				total += (naColuna - 1) * DOBRADO;
+			}
+		}
+		int avanco = (cor == Cor.BRANCO) ? -8 : 8;
+		long peoes = proprios;
+		while (peoes != 0) {
+			int casa = Long.numberOfTrailingZeros(peoes);
+			peoes &= peoes - 1;
+			int coluna = Bitboards.coluna(casa);
+			if ((proprios & ADJACENTES[coluna]) == 0) {
+				total += ISOLADO;
+			} else if ((proprios & APOIO[cor.ordinal()][casa]) == 0
+					&& (Ataques.peao(cor, casa + avanco) & adversarios) != 0) {
+				total += ATRASADO;
+			}
+			if ((adversarios & FRENTE[cor.ordinal()][casa]) == 0) {
+				int relativa = (cor == Cor.BRANCO) ? 7 - Bitboards.linha(casa) : Bitboards.linha(casa);
+				total += pontuacao(PASSADO_MEIO_JOGO[relativa], PASSADO_FINAL[relativa]);
+			}
+		}
+		return total;
+	}
+
+	private static long passados(long proprios, long adversarios, Cor cor) {
+		long passados = 0L;
+		long peoes = proprios;
+		while (peoes != 0) {
+			int casa = Long.numberOfTrailingZeros(peoes);
+			peoes &= peoes - 1;
+			if ((adversarios & FRENTE[cor.ordinal()][casa]) == 0) {
+				passados |= Bitboards.bit(casa);
+			}
+		}
+		return passados;
+	}
+
+}
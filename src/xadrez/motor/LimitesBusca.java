@@ -0,0 +1,41 @@
+package xadrez.motor;
+
+public class LimitesBusca {
+
+	public static final int PROFUNDIDADE_MAXIMA = 64;
+
+	private int profundidade;
+	private long nos;
+	private long tempoMs;
+
+	public LimitesBusca(int profundidade, long nos, long tempoMs) {
+		this.profundidade = (profundidade <= 0 || profundidade > PROFUNDIDADE_MAXIMA) ? PROFUNDIDADE_MAXIMA : profundidade;
+		this.nos = nos;
+		this.tempoMs = tempoMs;
+	}
+
+	public static LimitesBusca porProfundidade(int profundidade) {
+		return new LimitesBusca(profundidade, 0L, 0L);
+	}
+
+	public static LimitesBusca porNos(long nos) {
+		return new LimitesBusca(0, nos, 0L);
+	}
+
+	public static LimitesBusca porTempo(long tempoMs) {
+		return new LimitesBusca(0, 0L, tempoMs);
+	}
+
+	public int getProfundidade() {
+		return profundidade;
+	}
+
+	public long getNos() {
+		return nos;
+	}
+
+	public long getTempoMs() {
+		return tempoMs;
+	}
+
+}
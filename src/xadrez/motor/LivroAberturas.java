@@ -0,0 +1,157 @@
+package xadrez.motor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import xadrez.Bitboards;
+import xadrez.ListaMovimentos;
+import xadrez.Movimento;
+import xadrez.PartidaXadrez;
+import xadrez.TipoPeca;
+
+public class LivroAberturas implements Closeable {
+
+	// entrada no layout do Polyglot, big-endian: chave (8 bytes), lance (2), peso (2), aprendizado (4)
+	public static final int BYTES_POR_ENTRADA = 16;
+
+	private static final long BYTES_POR_SEGMENTO = 1L << 30;
+	private static final int ENTRADAS_POR_SEGMENTO = (int) (BYTES_POR_SEGMENTO / BYTES_POR_ENTRADA);
+
+	private final FileChannel canal;
+	private final MappedByteBuffer[] segmentos;
+	private final long entradas;
+
+	public LivroAberturas(Path arquivo) throws IOException {
+		canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+		long tamanho = canal.size();
+		if (tamanho % BYTES_POR_ENTRADA != 0) {
+			canal.close();
+			throw new IOException("Tamanho invalido para um livro de aberturas: " + arquivo);
+		}
+		entradas = tamanho / BYTES_POR_ENTRADA;
+		// o mapeamento fica fora do heap e as paginas so sao lidas quando a busca binaria passa por elas
+		segmentos = new MappedByteBuffer[(int) ((tamanho + BYTES_POR_SEGMENTO - 1) / BYTES_POR_SEGMENTO)];
+		for (int i = 0; i < segmentos.length; i++) {
+			long inicio = i * BYTES_POR_SEGMENTO;
+			segmentos[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(BYTES_POR_SEGMENTO, tamanho - inicio));
+		}
+	}
+
+	public long getEntradas() {
+		return entradas;
+	}
+
+	public int movimento(PartidaXadrez partida) {
+		return movimento(partida, ThreadLocalRandom.current());
+	}
+
+	// sorteia entre os lances do livro com probabilidade proporcional ao peso
+	public int movimento(PartidaXadrez partida, Random aleatorio) {
+		long chave = chave(partida);
+		long primeira = primeiraEntrada(chave);
+		int pesoTotal = 0;
+		long ultima = primeira;
+		for (; ultima < entradas && chave(ultima) == chave; ultima++) {
+			pesoTotal += peso(ultima);
+		}
+		if (primeira == ultima) {
+			return 0;
+		}
+
+		ListaMovimentos lista = new ListaMovimentos();
+		partida.gerarMovimentosLegais(lista);
+		int sorteio = (pesoTotal > 0) ? aleatorio.nextInt(pesoTotal) : 0;
+		for (long i = primeira; i < ultima; i++) {
+			sorteio -= peso(i);
+			if (sorteio < 0 || i == ultima - 1) {
+				return paraMovimento(lista, lance(i));
+			}
+		}
+		return 0;
+	}
+
+	public int melhorMovimento(PartidaXadrez partida) {
+		long chave = chave(partida);
+		int melhorPeso = -1;
+		int melhor = 0;
+		for (long i = primeiraEntrada(chave); i < entradas && chave(i) == chave; i++) {
+			if (peso(i) > melhorPeso) {
+				melhorPeso = peso(i);
+				melhor = lance(i);
+			}
+		}
+		if (melhorPeso < 0) {
+			return 0;
+		}
+		ListaMovimentos lista = new ListaMovimentos();
+		partida.gerarMovimentosLegais(lista);
+		return paraMovimento(lista, melhor);
+	}
+
+	@Override
+	public void close() throws IOException {
+		canal.close();
+	}
+
+	public static long chave(PartidaXadrez partida) {
+		return ChavePolyglot.calcular(partida);
+	}
+
+	public static int paraPolyglot(int movimento) {
+		int origem = Movimento.origem(movimento);
+		int destino = Movimento.destino(movimento);
+		// #movimentoEspecial Roque: o Polyglot anota o rei capturando a propria torre
+		if (Movimento.roque(movimento)) {
+			destino = Bitboards.casa(Bitboards.linha(destino), (Bitboards.coluna(destino) == 6) ? 7 : 0);
+		}
+		TipoPeca promocao = Movimento.promocao(movimento);
+		return Bitboards.coluna(destino) | ((7 - Bitboards.linha(destino)) << 3) | (Bitboards.coluna(origem) << 6)
+				| ((7 - Bitboards.linha(origem)) << 9) | (((promocao == null) ? 0 : promocao.ordinal()) << 12);
+	}
+
+	private static int paraMovimento(ListaMovimentos lista, int lance) {
+		for (int i = 0; i < lista.getTamanho(); i++) {
+			if (paraPolyglot(lista.get(i)) == lance) {
+				return lista.get(i);
+			}
+		}
+		return 0;
+	}
+
+	private long primeiraEntrada(long chave) {
+		long baixo = 0;
+		long alto = entradas;
+		while (baixo < alto) {
+			long meio = (baixo + alto) >>> 1;
+			if (Long.compareUnsigned(chave(meio), chave) < 0) {
+				baixo = meio + 1;
+			} else {
+				alto = meio;
+			}
+		}
+		return baixo;
+	}
+
+	private long chave(long entrada) {
+		return segmentos[(int) (entrada / ENTRADAS_POR_SEGMENTO)].getLong(deslocamento(entrada));
+	}
+
+	private int lance(long entrada) {
+		return segmentos[(int) (entrada / ENTRADAS_POR_SEGMENTO)].getShort(deslocamento(entrada) + 8) & 0xFFFF;
+	}
+
+	private int peso(long entrada) {
+		return segmentos[(int) (entrada / ENTRADAS_POR_SEGMENTO)].getShort(deslocamento(entrada) + 10) & 0xFFFF;
+	}
+
+	private static int deslocamento(long entrada) {
+		return (int) (entrada % ENTRADAS_POR_SEGMENTO) * BYTES_POR_ENTRADA;
+	}
+
+}
@@ -0,0 +1,209 @@
+package xadrez.motor;
+
+import xadrez.ListaMovimentos;
+import xadrez.Movimento;
+import xadrez.PartidaXadrez;
+import xadrez.TipoPeca;
+
+// entrega os lances em estagios: hash, capturas boas por MVV-LVA, killers, quietos pelo historico e por fim
+// as capturas que perdem material pela SEE; cada estagio so eh pontuado quando chega a vez dele,
+// entao um corte cedo economiza o resto
+final class OrdenadorMovimentos {
+
+	private static final int HASH = 0;
+	private static final int SEPARAR_CAPTURAS = 1;
+	private static final int CAPTURAS = 2;
+	private static final int KILLER_1 = 3;
+	private static final int KILLER_2 = 4;
+	private static final int PONTUAR_QUIETOS = 5;
+	private static final int QUIETOS = 6;
+	private static final int RUINS = 7;
+	private static final int FIM = 8;
+
+	private final int[] movimentos = new int[ListaMovimentos.CAPACIDADE_PADRAO];
+	private final int[] notas = new int[ListaMovimentos.CAPACIDADE_PADRAO];
+	private final int[] ruins = new int[ListaMovimentos.CAPACIDADE_PADRAO];
+	private final Troca troca = new Troca();
+
+	private PartidaXadrez partida;
+	private int[] historia;
+	private int total;
+	private int atual;
+	private int fimCapturas;
+	private int estagio;
+	private int movimentoHash;
+	private int killer1;
+	private int killer2;
+	private int totalRuins;
+	private int proximaRuim;
+	private boolean descartarRuins;
+
+	void iniciar(PartidaXadrez partida, ListaMovimentos lista, int movimentoHash, int killer1, int killer2, int[] historia) {
+		this.partida = partida;
+		this.historia = historia;
+		total = lista.getTamanho();
+		for (int i = 0; i < total; i++) {
+			movimentos[i] = lista.get(i);
+		}
+		this.movimentoHash = movimentoHash;
+		this.killer1 = killer1;
+		this.killer2 = killer2;
+		estagio = HASH;
+		atual = 0;
+		totalRuins = 0;
+		proximaRuim = 0;
+		descartarRuins = false;
+	}
+
+	// na quiescencia nao ha killers nem hash, e as capturas perdedoras sao descartadas de vez
+	void iniciarQuiescencia(PartidaXadrez partida, ListaMovimentos lista, int[] historia) {
+		iniciar(partida, lista, 0, 0, 0, historia);
+		descartarRuins = true;
+	}
+
+	int proximo() {
+		while (true) {
+			switch (estagio) {
+			case HASH:
+				estagio = SEPARAR_CAPTURAS;
+				if (movimentoHash != 0 && retirar(movimentoHash)) {
+					return movimentoHash;
+				}
+				break;
+			case SEPARAR_CAPTURAS:
+				separarCapturas();
+				estagio = CAPTURAS;
+				break;
+			case CAPTURAS:
+				while (atual < fimCapturas) {
+					int captura = melhor(fimCapturas);
+					if (!perdeMaterial(captura)) {
+						return captura;
+					}
+					if (!descartarRuins) {
+						ruins[totalRuins++] = captura;
+					}
+				}
+				estagio = KILLER_1;
+				break;
+			case KILLER_1:
+				estagio = KILLER_2;
+				if (retirarQuieto(killer1)) {
+					return killer1;
+				}
+				break;
+			case KILLER_2:
+				estagio = PONTUAR_QUIETOS;
+				if (retirarQuieto(killer2)) {
+					return killer2;
+				}
+				break;
+			case PONTUAR_QUIETOS:
+				pontuarQuietos();
+				estagio = QUIETOS;
+				break;
+			case QUIETOS:
+				if (atual < total) {
+					return melhor(total);
+				}
+				estagio = RUINS;
+				break;
+			case RUINS:
+				if (proximaRuim < totalRuins) {
+					return ruins[proximaRuim++];
+				}
+				estagio = FIM;
+				break;
+			default:
+				return 0;
+			}
+		}
+	}
+
+	static boolean tatico(int movimento) {
+		return Movimento.captura(movimento) || Movimento.promocao(movimento) == TipoPeca.RAINHA;
+	}
+
+	private void separarCapturas() {
+		fimCapturas = atual;
+		for (int i = atual; i < total; i++) {
+			int m = movimentos[i];
+			if (tatico(m)) {
+				notas[i] = mvvLva(m);
+				trocar(i, fimCapturas++);
+			}
+		}
+	}
+
+	// vitima mais valiosa primeiro, e entre vitimas iguais o atacante mais barato
+	private int mvvLva(int movimento) {
+		int vitima = 0;
+		if (Movimento.enPassant(movimento)) {
+			vitima = Avaliacao.valor(TipoPeca.PEAO);
+		} else if (Movimento.captura(movimento)) {
+			vitima = Avaliacao.valor(partida.pecaCasa(Movimento.destino(movimento)).getTipo());
+		}
+		if (Movimento.promocao(movimento) == TipoPeca.RAINHA) {
+			vitima += Avaliacao.valor(TipoPeca.RAINHA);
+		}
+		return vitima * 16 - Avaliacao.valor(partida.pecaCasa(Movimento.origem(movimento)).getTipo()) / 10;
+	}
+
+	// so chama a SEE quando a vitima vale menos que o atacante
+	private boolean perdeMaterial(int movimento) {
+		if (Movimento.promocao(movimento) != null || Movimento.enPassant(movimento)) {
+			return false;
+		}
+		TipoPeca atacante = partida.pecaCasa(Movimento.origem(movimento)).getTipo();
+		if (atacante == TipoPeca.REI || Avaliacao.valor(partida.pecaCasa(Movimento.destino(movimento)).getTipo()) >= Avaliacao.valor(atacante)) {
+			return false;
+		}
+		return troca.see(partida, movimento) < 0;
+	}
+
+	private void pontuarQuietos() {
+		for (int i = atual; i < total; i++) {
+			notas[i] = historia[indiceHistoria(movimentos[i])];
+		}
+	}
+
+	static int indiceHistoria(int movimento) {
+		return movimento & 0xFFF;
+	}
+
+	private int melhor(int fim) {
+		int escolhido = atual;
+		for (int i = atual + 1; i < fim; i++) {
+			if (notas[i] > notas[escolhido]) {
+				escolhido = i;
+			}
+		}
+		trocar(atual, escolhido);
+		return movimentos[atual++];
+	}
+
+	// tira o lance do que falta entregar, trocando com o ultimo
+	private boolean retirar(int movimento) {
+		for (int i = atual; i < total; i++) {
+			if (movimentos[i] == movimento) {
+				movimentos[i] = movimentos[--total];
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean retirarQuieto(int movimento) {
+		return movimento != 0 && !tatico(movimento) && retirar(movimento);
+	}
+
+	private void trocar(int i, int j) {
+		int m = movimentos[i];
+		movimentos[i] = movimentos[j];
+		movimentos[j] = m;
+		int n = notas[i];
+		notas[i] = notas[j];
+		notas[j] = n;
+	}
+
+}
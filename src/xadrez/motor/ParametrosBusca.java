@@ -0,0 +1,180 @@
+package xadrez.motor;
+
+// chaves e ajustes da busca seletiva; os padroes sao os usados pelo motor, e tudo desligado
+// volta ao alfa-beta puro com quiescencia
+public class ParametrosBusca {
+
+	private boolean movimentoNulo = true;
+	private int reducaoNulo = 2;
+	private int profundidadeMinimaNulo = 3;
+	private int divisorNuloProfundo = 6;
+
+	private boolean reducoesTardias = true;
+	private int lancesAntesReducao = 3;
+	private int profundidadeMinimaReducao = 3;
+	private double reducaoBase = 0.75;
+	private double reducaoDivisor = 2.25;
+
+	private boolean futilidade = true;
+	private int profundidadeMaximaFutilidade = 3;
+	private int margemFutilidade = 100;
+
+	private boolean futilidadeReversa = true;
+	private int profundidadeMaximaReversa = 6;
+	private int margemReversa = 80;
+
+	public static ParametrosBusca semPodas() {
+		ParametrosBusca p = new ParametrosBusca();
+		p.setMovimentoNulo(false);
+		p.setReducoesTardias(false);
+		p.setFutilidade(false);
+		p.setFutilidadeReversa(false);
+		return p;
+	}
+
+	public boolean isMovimentoNulo() {
+		return movimentoNulo;
+	}
+
+	public void setMovimentoNulo(boolean movimentoNulo) {
+		this.movimentoNulo = movimentoNulo;
+	}
+
+	public int getReducaoNulo() {
+		return reducaoNulo;
+	}
+
+	public void setReducaoNulo(int reducaoNulo) {
+		this.reducaoNulo = positivo(reducaoNulo, "reducaoNulo");
+	}
+
+	public int getProfundidadeMinimaNulo() {
+		return profundidadeMinimaNulo;
+	}
+
+	public void setProfundidadeMinimaNulo(int profundidadeMinimaNulo) {
+		this.profundidadeMinimaNulo = positivo(profundidadeMinimaNulo, "profundidadeMinimaNulo");
+	}
+
+	// a cada tantos plies de profundidade o lance nulo reduz mais um
+	public int getDivisorNuloProfundo() {
+		return divisorNuloProfundo;
+	}
+
+	public void setDivisorNuloProfundo(int divisorNuloProfundo) {
+		this.divisorNuloProfundo = positivo(divisorNuloProfundo, "divisorNuloProfundo");
+	}
+
+	public boolean isReducoesTardias() {
+		return reducoesTardias;
+	}
+
+	public void setReducoesTardias(boolean reducoesTardias) {
+		this.reducoesTardias = reducoesTardias;
+	}
+
+	// quantos lances o ordenador entrega antes de comecar a reduzir
+	public int getLancesAntesReducao() {
+		return lancesAntesReducao;
+	}
+
+	public void setLancesAntesReducao(int lancesAntesReducao) {
+		this.lancesAntesReducao = positivo(lancesAntesReducao, "lancesAntesReducao");
+	}
+
+	public int getProfundidadeMinimaReducao() {
+		return profundidadeMinimaReducao;
+	}
+
+	public void setProfundidadeMinimaReducao(int profundidadeMinimaReducao) {
+		this.profundidadeMinimaReducao = positivo(profundidadeMinimaReducao, "profundidadeMinimaReducao");
+	}
+
+	// reducao = base + ln(profundidade) * ln(ordem do lance) / divisor
+	public double getReducaoBase() {
+		return reducaoBase;
+	}
+
+	public void setReducaoBase(double reducaoBase) {
+		if (reducaoBase < 0) {
+			throw new IllegalArgumentException("reducaoBase nao pode ser negativa");
+		}
+		this.reducaoBase = reducaoBase;
+	}
+
+	public double getReducaoDivisor() {
+		return reducaoDivisor;
+	}
+
+	public void setReducaoDivisor(double reducaoDivisor) {
+		if (reducaoDivisor <= 0) {
+			throw new IllegalArgumentException("reducaoDivisor precisa ser positivo");
+		}
+		this.reducaoDivisor = reducaoDivisor;
+	}
+
+	public boolean isFutilidade() {
+		return futilidade;
+	}
+
+	public void setFutilidade(boolean futilidade) {
+		this.futilidade = futilidade;
+	}
+
+	public int getProfundidadeMaximaFutilidade() {
+		return profundidadeMaximaFutilidade;
+	}
+
+	public void setProfundidadeMaximaFutilidade(int profundidadeMaximaFutilidade) {
+		this.profundidadeMaximaFutilidade = positivo(profundidadeMaximaFutilidade, "profundidadeMaximaFutilidade");
+	}
+
+	// margem por ply de profundidade restante
+	public int getMargemFutilidade() {
+		return margemFutilidade;
+	}
+
+	public void setMargemFutilidade(int margemFutilidade) {
+		this.margemFutilidade = positivo(margemFutilidade, "margemFutilidade");
+	}
+
+	public boolean isFutilidadeReversa() {
+		return futilidadeReversa;
+	}
+
+	public void setFutilidadeReversa(boolean futilidadeReversa) {
+		this.futilidadeReversa = futilidadeReversa;
+	}
+
+	public int getProfundidadeMaximaReversa() {
+		return profundidadeMaximaReversa;
+	}
+
+	public void setProfundidadeMaximaReversa(int profundidadeMaximaReversa) {
+		this.profundidadeMaximaReversa = positivo(profundidadeMaximaReversa, "profundidadeMaximaReversa");
+	}
+
+	public int getMargemReversa() {
+		return margemReversa;
+	}
+
+	public void setMargemReversa(int margemReversa) {
+		this.margemReversa = positivo(margemReversa, "margemReversa");
+	}
+
+	private static int positivo(int valor, String nome) {
+		if (valor < 1) {
+			throw new IllegalArgumentException(nome + " precisa ser pelo menos 1");
+		}
+		return valor;
+	}
+
+	@Override
+	public String toString() {
+		return "nulo=" + movimentoNulo + "(R=" + reducaoNulo + ",min=" + profundidadeMinimaNulo + ")"
+				+ " lmr=" + reducoesTardias + "(apos=" + lancesAntesReducao + ",min=" + profundidadeMinimaReducao + ")"
+				+ " futilidade=" + futilidade + "(" + margemFutilidade + "x" + profundidadeMaximaFutilidade + ")"
+				+ " reversa=" + futilidadeReversa + "(" + margemReversa + "x" + profundidadeMaximaReversa + ")";
+	}
+
+}
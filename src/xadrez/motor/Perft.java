@@ -0,0 +1,118 @@
+package xadrez.motor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import xadrez.ListaMovimentos;
+import xadrez.Movimento;
+import xadrez.PartidaXadrez;
+
+public class Perft {
+
+	private static final int PROFUNDIDADE_SERIAL = 3;
+
+	private final PartidaXadrez partida;
+	private final ListaMovimentos[] listas;
+
+	public Perft(PartidaXadrez partida, int profundidadeMaxima) {
+		this.partida = partida;
+		listas = new ListaMovimentos[Math.max(profundidadeMaxima, 1) + 1];
+		for (int i = 0; i < listas.length; i++) {
+			listas[i] = new ListaMovimentos();
+		}
+	}
+
+	public long contar(int profundidade) {
+		if (profundidade == 0) {
+			return 1L;
+		}
+		ListaMovimentos lista = listas[profundidade];
+		int total = partida.gerarMovimentosLegais(lista);
+		if (profundidade == 1) {
+			return total;
+		}
+		long nos = 0L;
+		for (int i = 0; i < total; i++) {
+			int movimento = lista.get(i);
+			partida.fazerMovimento(movimento);
+			nos += contar(profundidade - 1);
+			partida.desfazerMovimento(movimento);
+		}
+		return nos;
+	}
+
+	public static long contar(PartidaXadrez partida, int profundidade) {
+		if (profundidade < 0) {
+			throw new IllegalArgumentException("A profundidade do perft nao pode ser negativa");
+		}
+		return new Perft(partida, profundidade).contar(profundidade);
+	}
+
+	// divide pelos lances da raiz, entao precisa de pelo menos um ply
+	public static Map<String, Long> dividir(PartidaXadrez partida, int profundidade, ForkJoinPool pool) {
+		if (profundidade < 1) {
+			throw new IllegalArgumentException("O divide do perft precisa de profundidade pelo menos 1");
+		}
+		ListaMovimentos lista = new ListaMovimentos();
+		partida.gerarMovimentosLegais(lista);
+		List<TarefaPerft> tarefas = new ArrayList<>();
+		for (int i = 0; i < lista.getTamanho(); i++) {
+			PartidaXadrez copia = new PartidaXadrez(partida);
+			copia.fazerMovimento(lista.get(i));
+			tarefas.add(new TarefaPerft(copia, profundidade - 1));
+		}
+		for (TarefaPerft t : tarefas) {
+			pool.execute(t);
+		}
+		Map<String, Long> resultado = new LinkedHashMap<>();
+		for (int i = 0; i < tarefas.size(); i++) {
+			resultado.put(Movimento.paraTexto(lista.get(i)), tarefas.get(i).join());
+		}
+		return resultado;
+	}
+
+	public static long contarParalelo(PartidaXadrez partida, int profundidade, ForkJoinPool pool) {
+		if (profundidade < 0) {
+			throw new IllegalArgumentException("A profundidade do perft nao pode ser negativa");
+		}
+		return pool.invoke(new TarefaPerft(new PartidaXadrez(partida), profundidade));
+	}
+
+	private static class TarefaPerft extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final PartidaXadrez partida;
+		private final int profundidade;
+
+		public TarefaPerft(PartidaXadrez partida, int profundidade) {
+			this.partida = partida;
+			this.profundidade = profundidade;
+		}
+
+		@Override
+		protected Long compute() {
+			if (profundidade <= PROFUNDIDADE_SERIAL) {
+				return contar(partida, profundidade);
+			}
+			ListaMovimentos lista = new ListaMovimentos();
+			partida.gerarMovimentosLegais(lista);
+			List<TarefaPerft> tarefas = new ArrayList<>();
+			for (int i = 0; i < lista.getTamanho(); i++) {
+				PartidaXadrez copia = new PartidaXadrez(partida);
+				copia.fazerMovimento(lista.get(i));
+				tarefas.add(new TarefaPerft(copia, profundidade - 1));
+			}
+			long nos = 0L;
+			for (TarefaPerft t : invokeAll(tarefas)) {
+				nos += t.join();
+			}
+			return nos;
+		}
+	}
+
+}
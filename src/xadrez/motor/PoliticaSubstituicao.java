@@ -0,0 +1,8 @@
+package xadrez.motor;
+
+public enum PoliticaSubstituicao {
+
+	SEMPRE_SUBSTITUIR,
+	PREFERIR_PROFUNDIDADE,
+	DOIS_NIVEIS;
+}
@@ -0,0 +1,65 @@
+package xadrez.motor;
+
+import java.util.Arrays;
+
+import xadrez.Movimento;
+
+public class ResultadoBusca {
+
+	private int melhorMovimento;
+	private int valor;
+	private int profundidade;
+	private long nos;
+	private long tempoMs;
+	private int[] pv;
+
+	public ResultadoBusca(int melhorMovimento, int valor, int profundidade, long nos, long tempoMs, int[] pv) {
+		this.melhorMovimento = melhorMovimento;
+		this.valor = valor;
+		this.profundidade = profundidade;
+		this.nos = nos;
+		this.tempoMs = tempoMs;
+		this.pv = pv;
+	}
+
+	public int getMelhorMovimento() {
+		return melhorMovimento;
+	}
+
+	public int getValor() {
+		return valor;
+	}
+
+	public int getProfundidade() {
+		return profundidade;
+	}
+
+	public long getNos() {
+		return nos;
+	}
+
+	public long getTempoMs() {
+		return tempoMs;
+	}
+
+	public int[] getPv() {
+		return Arrays.copyOf(pv, pv.length);
+	}
+
+	public String pvTexto() {
+		StringBuilder sb = new StringBuilder();
+		for (int m : pv) {
+			if (sb.length() > 0) {
+				sb.append(' ');
+			}
+			sb.append(Movimento.paraTexto(m));
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "profundidade " + profundidade + " valor " + valor + " nos " + nos + " tempo " + tempoMs + " pv " + pvTexto();
+	}
+
+}
@@ -0,0 +1,93 @@
+package xadrez.motor;
+
+import java.util.Arrays;
+
+import xadrez.Cor;
+import xadrez.PartidaXadrez;
+import xadrez.TipoPeca;
+
+// cache da estrutura de peoes pela chave so de peoes; cada busca tem a sua, entao nao ha concorrencia
+public class TabelaPeoes {
+
+	private final long[] chaves;
+	private final int[] pontuacoes;
+	private final long[] passados;
+	private final int mascara;
+
+	private long consultas;
+	private long acertos;
+
+	public TabelaPeoes(int entradas) {
+		if (entradas < 1) {
+			throw new IllegalArgumentException("A tabela de peoes precisa de pelo menos 1 entrada");
+		}
+		int tamanho = Integer.highestOneBit(entradas);
+		chaves = new long[tamanho];
+		pontuacoes = new int[tamanho];
+		passados = new long[tamanho];
+		mascara = tamanho - 1;
+	}
+
+	public int getEntradas() {
+		return chaves.length;
+	}
+
+	// devolve a entrada da estrutura atual, calculando na falha; sem peoes a chave eh 0 e a entrada vazia ja esta certa
+	public int sondar(PartidaXadrez partida) {
+		consultas++;
+		long chave = partida.getChavePeoes();
+		int i = (int) (chave ^ (chave >>> 32)) & mascara;
+		if (chaves[i] == chave) {
+			acertos++;
+			return i;
+		}
+		long brancos = partida.bitboard(TipoPeca.PEAO, Cor.BRANCO);
+		long pretos = partida.bitboard(TipoPeca.PEAO, Cor.PRETO);
+		chaves[i] = chave;
+		pontuacoes[i] = EstruturaPeoes.avaliar(brancos, pretos);
+		passados[i] = EstruturaPeoes.passados(brancos, pretos);
+		return i;
+	}
+
+	public int meioJogo(int entrada) {
+		return EstruturaPeoes.meioJogo(pontuacoes[entrada]);
+	}
+
+	public int finalJogo(int entrada) {
+		return EstruturaPeoes.finalJogo(pontuacoes[entrada]);
+	}
+
+	// peoes passados das duas cores; a cor sai cruzando com o bitboard de peoes de cada lado
+	public long passados(int entrada) {
+		return passados[entrada];
+	}
+
+	public void limpar() {
+		Arrays.fill(chaves, 0L);
+		Arrays.fill(pontuacoes, 0);
+		Arrays.fill(passados, 0L);
+		consultas = acertos = 0;
+	}
+
+	public long getConsultas() {
+		return consultas;
+	}
+
+	public long getAcertos() {
+		return acertos;
+	}
+
+	public long getFalhas() {
+		return consultas - acertos;
+	}
+
+	public int taxaAcertoPermil() {
+		return (consultas == 0) ? 0 : (int) (acertos * 1000 / consultas);
+	}
+
+	@Override
+	public String toString() {
+		return "consultas=" + consultas + " acertos=" + acertos + " falhas=" + getFalhas() + " taxa=" + taxaAcertoPermil() + "/1000";
+	}
+
+}
@@ -0,0 +1,231 @@
+package xadrez.motor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+public class TabelaTransposicao {
+
+	public static final int EXATO = 1;
+	public static final int LIMITE_INFERIOR = 2;
+	public static final int LIMITE_SUPERIOR = 3;
+
+	private static final int BYTES_POR_BALDE = 32;
+	private static final int SLOTS_POR_BALDE = 2;
+
+	private static final VarHandle ELEMENTO = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private final PoliticaSubstituicao politica;
+	private final long[] chaves;
+	private final long[] dados;
+	private final int mascara;
+	private volatile int idade;
+
+	// contadores sem sincronizacao: aproximados quando a tabela eh compartilhada entre threads
+	private long consultas;
+	private long acertos;
+	private long falhas;
+	private long colisoes;
+	private long gravacoes;
+
+	public TabelaTransposicao(int megabytes) {
+		this(megabytes, PoliticaSubstituicao.DOIS_NIVEIS);
+	}
+
+	public TabelaTransposicao(int megabytes, PoliticaSubstituicao politica) {
+		if (megabytes < 1) {
+			throw new IllegalArgumentException("A tabela de transposicao precisa de pelo menos 1 MB");
+		}
+		long baldes = Long.highestOneBit(((long) megabytes << 20) / BYTES_POR_BALDE);
+		if (baldes * SLOTS_POR_BALDE > Integer.MAX_VALUE - 8) {
+			baldes = Integer.highestOneBit((Integer.MAX_VALUE - 8) / SLOTS_POR_BALDE);
+		}
+		this.politica = politica;
+		chaves = new long[(int) baldes * SLOTS_POR_BALDE];
+		dados = new long[(int) baldes * SLOTS_POR_BALDE];
+		mascara = (int) baldes - 1;
+	}
+
+	public PoliticaSubstituicao getPolitica() {
+		return politica;
+	}
+
+	public int getEntradas() {
+		return chaves.length;
+	}
+
+	public void novaBusca() {
+		idade = (idade + 1) & 0x3F;
+	}
+
+	public void limpar() {
+		Arrays.fill(chaves, 0L);
+		Arrays.fill(dados, 0L);
+		idade = 0;
+		consultas = acertos = falhas = colisoes = gravacoes = 0;
+	}
+
+	public long sondar(long chave) {
+		consultas++;
+		int slot = balde(chave);
+		boolean ocupado = false;
+		for (int i = slot; i < slot + SLOTS_POR_BALDE; i++) {
+			long dado = dado(i);
+			if (dado == 0L) {
+				continue;
+			}
+			if ((chaveVerificada(i) ^ dado) == chave) {
+				acertos++;
+				return dado;
+			}
+			ocupado = true;
+		}
+		if (ocupado) {
+			colisoes++;
+		} else {
+			falhas++;
+		}
+		return 0L;
+	}
+
+	public void gravar(long chave, int movimento, int valor, int profundidade, int tipo) {
+		gravacoes++;
+		int slot = balde(chave);
+		int alvo = escolherSlot(slot, chave, profundidade);
+		if (chave(alvo) == chave && movimento == 0) {
+			movimento = movimento(dado(alvo));
+		}
+		long dado = empacotar(movimento, valor, profundidade, tipo, idade);
+		ELEMENTO.setOpaque(dados, alvo, dado);
+		ELEMENTO.setOpaque(chaves, alvo, chave ^ dado);
+	}
+
+	private long dado(int i) {
+		return (long) ELEMENTO.getOpaque(dados, i);
+	}
+
+	private long chaveVerificada(int i) {
+		return (long) ELEMENTO.getOpaque(chaves, i);
+	}
+
+	private long chave(int i) {
+		return chaveVerificada(i) ^ dado(i);
+	}
+
+	private int escolherSlot(int slot, long chave, int profundidade) {
+		switch (politica) {
+		case SEMPRE_SUBSTITUIR:
+			// grava sempre: a mesma posicao, senao o slot vazio, o de busca mais antiga ou o mais raso
+			if (chave(slot) == chave) {
+				return slot;
+			}
+			if (chave(slot + 1) == chave) {
+				return slot + 1;
+			}
+			long primeiro = dado(slot);
+			long segundo = dado(slot + 1);
+			if (primeiro == 0L || segundo == 0L) {
+				return (primeiro == 0L) ? slot : slot + 1;
+			}
+			int atrasoPrimeiro = (idade - idade(primeiro)) & 0x3F;
+			int atrasoSegundo = (idade - idade(segundo)) & 0x3F;
+			if (atrasoPrimeiro != atrasoSegundo) {
+				return (atrasoPrimeiro > atrasoSegundo) ? slot : slot + 1;
+			}
+			return (profundidade(primeiro) <= profundidade(segundo)) ? slot : slot + 1;
+		case PREFERIR_PROFUNDIDADE:
+			if (chave(slot) == chave) {
+				return slot;
+			}
+			if (chave(slot + 1) == chave) {
+				return slot + 1;
+			}
+			return (prioridade(dado(slot)) <= prioridade(dado(slot + 1))) ? slot : slot + 1;
+		default:
+			long atual = dado(slot);
+			if (chave(slot) == chave || atual == 0L || idade(atual) != idade || profundidade(atual) <= profundidade) {
+				return slot;
+			}
+			return slot + 1;
+		}
+	}
+
+	private int prioridade(long dado) {
+		if (dado == 0L) {
+			return Integer.MIN_VALUE;
+		}
+		int atraso = (idade - idade(dado)) & 0x3F;
+		return profundidade(dado) - 8 * atraso;
+	}
+
+	private int balde(long chave) {
+		return ((int) (chave ^ (chave >>> 32)) & mascara) * SLOTS_POR_BALDE;
+	}
+
+	public int ocupacaoPermil() {
+		int amostra = Math.min(1000, chaves.length);
+		int ocupadas = 0;
+		for (int i = 0; i < amostra; i++) {
+			long dado = dado(i);
+			if (dado != 0L && idade(dado) == idade) {
+				ocupadas++;
+			}
+		}
+		return ocupadas * 1000 / amostra;
+	}
+
+	public long getConsultas() {
+		return consultas;
+	}
+
+	public long getAcertos() {
+		return acertos;
+	}
+
+	public long getFalhas() {
+		return falhas;
+	}
+
+	public long getColisoes() {
+		return colisoes;
+	}
+
+	public long getGravacoes() {
+		return gravacoes;
+	}
+
+	@Override
+	public String toString() {
+		return "consultas=" + consultas + " acertos=" + acertos + " falhas=" + falhas + " colisoes=" + colisoes
+				+ " gravacoes=" + gravacoes;
+	}
+
+	static long empacotar(int movimento, int valor, int profundidade, int tipo, int idade) {
+		return (movimento & 0xFFFFFL)
+				| (((long) valor & 0xFFFFL) << 20)
+				| (((long) profundidade & 0xFFL) << 36)
+				| (((long) tipo & 0x3L) << 44)
+				| (((long) idade & 0x3FL) << 46);
+	}
+
+	public static int movimento(long dado) {
+		return (int) (dado & 0xFFFFF);
+	}
+
+	public static int valor(long dado) {
+		return (short) ((dado >>> 20) & 0xFFFF);
+	}
+
+	public static int profundidade(long dado) {
+		return (byte) ((dado >>> 36) & 0xFF);
+	}
+
+	public static int tipo(long dado) {
+		return (int) ((dado >>> 44) & 0x3);
+	}
+
+	static int idade(long dado) {
+		return (int) ((dado >>> 46) & 0x3F);
+	}
+
+}
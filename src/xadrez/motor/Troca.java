@@ -0,0 +1,86 @@
+package xadrez.motor;
+
+import xadrez.Bitboards;
+import xadrez.Cor;
+import xadrez.Movimento;
+import xadrez.PartidaXadrez;
+import xadrez.PecaXadrez;
+import xadrez.TipoPeca;
+
+// avaliacao estatica de troca (SEE): resolve a sequencia de capturas numa casa so com bitboards,
+// sem mexer no tabuleiro; cravadas sao ignoradas. O vetor de ganhos eh da instancia, entao cada
+// thread de busca usa a sua
+final class Troca {
+
+	private static final TipoPeca[] TIPOS = TipoPeca.values();
+	private static final int VALOR_REI = 20000;
+
+	private final int[] ganho = new int[32];
+
+	int see(PartidaXadrez partida, int movimento) {
+		int origem = Movimento.origem(movimento);
+		int destino = Movimento.destino(movimento);
+		PecaXadrez atacante = partida.pecaCasa(origem);
+		Cor lado = atacante.getCor();
+		long ocupacao = partida.getOcupacao() & ~Bitboards.bit(origem);
+
+		int[] ganho = this.ganho;
+		ganho[0] = 0;
+		int d = 0;
+		if (Movimento.enPassant(movimento)) {
+			ganho[0] = Avaliacao.valor(TipoPeca.PEAO);
+			ocupacao &= ~Bitboards.bit(destino + ((lado == Cor.BRANCO) ? 8 : -8));
+		} else if (Movimento.captura(movimento)) {
+			ganho[0] = Avaliacao.valor(partida.pecaCasa(destino).getTipo());
+		}
+		int naCasa = valor(atacante.getTipo());
+		TipoPeca promocao = Movimento.promocao(movimento);
+		if (promocao != null) {
+			ganho[0] += Avaliacao.valor(promocao) - Avaliacao.valor(TipoPeca.PEAO);
+			naCasa = Avaliacao.valor(promocao);
+		}
+
+		lado = oponente(lado);
+		while (true) {
+			d++;
+			ganho[d] = naCasa - ganho[d - 1];
+			if (Math.max(-ganho[d - 1], ganho[d]) < 0 || d == ganho.length - 1) {
+				break;
+			}
+			long atacantes = partida.atacantes(destino, lado, ocupacao) & ocupacao;
+			if (atacantes == 0) {
+				break;
+			}
+			TipoPeca tipo = null;
+			long bit = 0L;
+			for (TipoPeca t : TIPOS) {
+				long pecas = atacantes & partida.bitboard(t, lado);
+				if (pecas != 0) {
+					tipo = t;
+					bit = pecas & -pecas;
+					break;
+				}
+			}
+			// o rei so captura se o adversario nao tiver mais nada na casa
+			if (tipo == TipoPeca.REI && (partida.atacantes(destino, oponente(lado), ocupacao & ~bit) & ocupacao) != 0) {
+				break;
+			}
+			ocupacao &= ~bit;
+			naCasa = valor(tipo);
+			lado = oponente(lado);
+		}
+		while (--d > 0) {
+			ganho[d - 1] = -Math.max(-ganho[d - 1], ganho[d]);
+		}
+		return ganho[0];
+	}
+
+	private static int valor(TipoPeca tipo) {
+		return (tipo == TipoPeca.REI) ? VALOR_REI : Avaliacao.valor(tipo);
+	}
+
+	private static Cor oponente(Cor cor) {
+		return (cor == Cor.BRANCO) ? Cor.PRETO : Cor.BRANCO;
+	}
+
+}
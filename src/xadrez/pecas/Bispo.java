@@ -1,9 +1,10 @@
 package xadrez.pecas;
 
-import camadaTabuleiro.Posicao;
 import camadaTabuleiro.Tabuleiro;
+import xadrez.Ataques;
 import xadrez.Cor;
 import xadrez.PecaXadrez;
+import xadrez.TipoPeca;
 
 public class Bispo extends PecaXadrez {
 
@@ -12,53 +13,8 @@ public class Bispo extends PecaXadrez {
 	}
 
 	@Override
-	public boolean[][] possiveisMovimentos() {
-
-		boolean[][] mat = new boolean[getTabuleiro().getLinhas()][getTabuleiro().getColunas()];
-
-		Posicao p = new Posicao(0, 0);
-
-		// noroeste
-		p.setValores(posicao.getLinha() - 1, posicao.getColuna() - 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setValores(p.getLinha() - 1, p.getColuna() - 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// nordeste
-		p.setValores(posicao.getLinha() - 1, posicao.getColuna() + 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setValores(p.getLinha() - 1, p.getColuna() + 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// sudeste
-		p.setValores(posicao.getLinha() + 1, posicao.getColuna() + 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setValores(p.getLinha() + 1, p.getColuna() + 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// sudoeste
-		p.setValores(posicao.getLinha() + 1, posicao.getColuna() - 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setValores(p.getLinha() + 1, p.getColuna() - 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		return mat;
+	public TipoPeca getTipo() {
+		return TipoPeca.BISPO;
 	}
 
 	@Override
@@ -66,4 +22,8 @@ public class Bispo extends PecaXadrez {
 		return "B";
 	}
 
+	@Override
+	public long movimentosBits() {
+		return Ataques.bispo(getCasa(), getTabuleiro().getOcupacao()) & ~ocupacaoPropria();
+	}
 }
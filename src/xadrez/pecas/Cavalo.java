@@ -1,9 +1,10 @@
 package xadrez.pecas;
 
-import camadaTabuleiro.Posicao;
 import camadaTabuleiro.Tabuleiro;
+import xadrez.Ataques;
 import xadrez.Cor;
 import xadrez.PecaXadrez;
+import xadrez.TipoPeca;
 
 public class Cavalo extends PecaXadrez {
 
@@ -11,64 +12,19 @@ public class Cavalo extends PecaXadrez {
 		super(tabuleiro, cor);
 	}
 	
+	@Override
+	public TipoPeca getTipo() {
+		return TipoPeca.CAVALO;
+	}
+
 	@Override
 	public String toString() {
 		return "C";
 	}
-	
-	private boolean podeMover(Posicao posicao) {
-		PecaXadrez p = (PecaXadrez) getTabuleiro().peca(posicao);
-		return p == null || p.getCor() != getCor();
-	}
 
 	@Override
-	public boolean[][] possiveisMovimentos() {
-		boolean[][] mat = new boolean[getTabuleiro().getLinhas()][getTabuleiro().getColunas()];
-
-		Posicao p = new Posicao(0, 0);
-
-		p.setValores(posicao.getLinha() - 1, posicao.getColuna() - 2);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		p.setValores(posicao.getLinha() - 2, posicao.getColuna() - 1);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		p.setValores(posicao.getLinha() - 2, posicao.getColuna() + 1);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		p.setValores(posicao.getLinha() - 1, posicao.getColuna() + 2);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		p.setValores(posicao.getLinha() + 1, posicao.getColuna() + 2);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		p.setValores(posicao.getLinha() + 2, posicao.getColuna() + 1);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		p.setValores(posicao.getLinha() + 2, posicao.getColuna() - 1);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		p.setValores(posicao.getLinha() + 1, posicao.getColuna() - 2);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		return mat;
-
+	public long movimentosBits() {
+		return Ataques.cavalo(getCasa()) & ~ocupacaoPropria();
 	}
 
 }
@@ -1,10 +1,12 @@
 package xadrez.pecas;
 
-import camadaTabuleiro.Posicao;
 import camadaTabuleiro.Tabuleiro;
+import xadrez.Ataques;
+import xadrez.Bitboards;
 import xadrez.Cor;
 import xadrez.PartidaXadrez;
 import xadrez.PecaXadrez;
+import xadrez.TipoPeca;
 
 public class Peao extends PecaXadrez {
 
@@ -16,78 +18,41 @@ public class Peao extends PecaXadrez {
 	}
 
 	@Override
-	public boolean[][] possiveisMovimentos() {
-		boolean[][] mat = new boolean[getTabuleiro().getLinhas()][getTabuleiro().getColunas()];
+	public long movimentosBits() {
+		int casa = getCasa();
+		long ocupacao = getTabuleiro().getOcupacao();
+		int frente = (getCor() == Cor.BRANCO) ? -8 : 8;
 
-		Posicao p = new Posicao(0, 0);
+		long bits = Ataques.peao(getCor(), casa) & ocupacaoAdversaria();
 
-		if (getCor() == Cor.BRANCO) {
-			p.setValores(posicao.getLinha() - 1, posicao.getColuna());
-			if (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-				mat[p.getLinha()][p.getColuna()] = true;
+		int umPasso = casa + frente;
+		if (umPasso >= 0 && umPasso < 64 && !Bitboards.contem(ocupacao, umPasso)) {
+			bits |= Bitboards.bit(umPasso);
+			int doisPassos = umPasso + frente;
+			if (getContagemMovimentos() == 0 && doisPassos >= 0 && doisPassos < 64 && !Bitboards.contem(ocupacao, doisPassos)) {
+				bits |= Bitboards.bit(doisPassos);
 			}
-			p.setValores(posicao.getLinha() - 2, posicao.getColuna());
-			Posicao p2 = new Posicao(posicao.getLinha() - 1, posicao.getColuna());
-			if (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p) && getTabuleiro().posicaoExiste(p2)
-					&& !getTabuleiro().pecaExiste(p2) && getContagemMovimentos() == 0) {
-				mat[p.getLinha()][p.getColuna()] = true;
-			}
-			p.setValores(posicao.getLinha() - 1, posicao.getColuna() - 1);
-			if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-				mat[p.getLinha()][p.getColuna()] = true;
-			}
-			p.setValores(posicao.getLinha() - 1, posicao.getColuna() + 1);
-			if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-				mat[p.getLinha()][p.getColuna()] = true;
-			}
-			
-			// #movimentoEspecial en passant branco
-			if (posicao.getLinha() == 3) {
-				Posicao esquerda = new Posicao(posicao.getLinha(), posicao.getColuna() - 1);
-				if (getTabuleiro().posicaoExiste(esquerda) && existePecaAdversaria(esquerda) && getTabuleiro().peca(esquerda) == partidaXadrez.getEnPassantVulneravel()) {
-					mat[esquerda.getLinha() - 1][esquerda.getColuna()] = true;
-				}
-				Posicao direita = new Posicao(posicao.getLinha(), posicao.getColuna() + 1);
-				if (getTabuleiro().posicaoExiste(direita) && existePecaAdversaria(direita) && getTabuleiro().peca(direita) == partidaXadrez.getEnPassantVulneravel()) {
-					mat[direita.getLinha() - 1][direita.getColuna()] = true;
-				}
-			}
-		} else {
-			p.setValores(posicao.getLinha() + 1, posicao.getColuna());
-			if (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-				mat[p.getLinha()][p.getColuna()] = true;
-			}
-			p.setValores(posicao.getLinha() + 2, posicao.getColuna());
-			Posicao p2 = new Posicao(posicao.getLinha() + 1, posicao.getColuna());
-			if (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p) && getTabuleiro().posicaoExiste(p2)
-					&& !getTabuleiro().pecaExiste(p2) && getContagemMovimentos() == 0) {
-				mat[p.getLinha()][p.getColuna()] = true;
-			}
-			p.setValores(posicao.getLinha() + 1, posicao.getColuna() - 1);
-			if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-				mat[p.getLinha()][p.getColuna()] = true;
-			}
-			p.setValores(posicao.getLinha() + 1, posicao.getColuna() + 1);
-			if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-				mat[p.getLinha()][p.getColuna()] = true;
-			}
-			
-			// #movimentoEspecial en passant preto
-			if (posicao.getLinha() == 4) {
-				Posicao esquerda = new Posicao(posicao.getLinha(), posicao.getColuna() - 1);
-				if (getTabuleiro().posicaoExiste(esquerda) && existePecaAdversaria(esquerda) && getTabuleiro().peca(esquerda) == partidaXadrez.getEnPassantVulneravel()) {
-					mat[esquerda.getLinha() + 1][esquerda.getColuna()] = true;
-				}
-				Posicao direita = new Posicao(posicao.getLinha(), posicao.getColuna() + 1);
-				if (getTabuleiro().posicaoExiste(direita) && existePecaAdversaria(direita) && getTabuleiro().peca(direita) == partidaXadrez.getEnPassantVulneravel()) {
-					mat[direita.getLinha() + 1][direita.getColuna()] = true;
-				}
+		}
+
+		// #movimentoEspecial en passant
+		PecaXadrez vulneravel = partidaXadrez.getEnPassantVulneravel();
+		int linhaEnPassant = (getCor() == Cor.BRANCO) ? 3 : 4;
+		if (vulneravel != null && vulneravel.getCor() != getCor() && posicao.getLinha() == linhaEnPassant) {
+			int casaVulneravel = vulneravel.getCasa();
+			if (casaVulneravel >= 0 && Bitboards.linha(casaVulneravel) == linhaEnPassant
+					&& Math.abs(Bitboards.coluna(casaVulneravel) - posicao.getColuna()) == 1) {
+				bits |= Bitboards.bit(casaVulneravel + frente);
 			}
 		}
 
-		return mat;
+		return bits;
 	}
 	
+	@Override
+	public TipoPeca getTipo() {
+		return TipoPeca.PEAO;
+	}
+
 	@Override
 	public String toString() {
 		return "P";
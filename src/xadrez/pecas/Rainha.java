@@ -1,9 +1,10 @@
 package xadrez.pecas;
 
-import camadaTabuleiro.Posicao;
 import camadaTabuleiro.Tabuleiro;
+import xadrez.Ataques;
 import xadrez.Cor;
 import xadrez.PecaXadrez;
+import xadrez.TipoPeca;
 
 public class Rainha extends PecaXadrez {
 
@@ -11,97 +12,18 @@ public class Rainha extends PecaXadrez {
 		super(tabuleiro, cor);
 	}
 
+	@Override
+	public TipoPeca getTipo() {
+		return TipoPeca.RAINHA;
+	}
+
 	@Override
 	public String toString() {
 		return "Q";
 	}
 
 	@Override
-	public boolean[][] possiveisMovimentos() {
-		boolean[][] mat = new boolean[getTabuleiro().getLinhas()][getTabuleiro().getColunas()];
-
-		Posicao p = new Posicao(0, 0);
-
-		// acima
-		p.setValores(posicao.getLinha() - 1, posicao.getColuna());
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setLinha(p.getLinha() - 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// esquerda
-		p.setValores(posicao.getLinha(), posicao.getColuna() - 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setColuna(p.getColuna() - 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// direita
-		p.setValores(posicao.getLinha(), posicao.getColuna() + 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setColuna(p.getColuna() + 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// abaixo
-		p.setValores(posicao.getLinha() + 1, posicao.getColuna());
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setLinha(p.getLinha() + 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// noroeste
-		p.setValores(posicao.getLinha() - 1, posicao.getColuna() - 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setValores(p.getLinha() - 1, p.getColuna() - 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// nordeste
-		p.setValores(posicao.getLinha() - 1, posicao.getColuna() + 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setValores(p.getLinha() - 1, p.getColuna() + 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// sudeste
-		p.setValores(posicao.getLinha() + 1, posicao.getColuna() + 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setValores(p.getLinha() + 1, p.getColuna() + 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// sudoeste
-		p.setValores(posicao.getLinha() + 1, posicao.getColuna() - 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setValores(p.getLinha() + 1, p.getColuna() - 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		return mat;
+	public long movimentosBits() {
+		return Ataques.rainha(getCasa(), getTabuleiro().getOcupacao()) & ~ocupacaoPropria();
 	}
 }
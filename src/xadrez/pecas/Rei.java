@@ -1,10 +1,12 @@
 package xadrez.pecas;
 
-import camadaTabuleiro.Posicao;
 import camadaTabuleiro.Tabuleiro;
+import xadrez.Ataques;
+import xadrez.Bitboards;
 import xadrez.Cor;
 import xadrez.PartidaXadrez;
 import xadrez.PecaXadrez;
+import xadrez.TipoPeca;
 
 public class Rei extends PecaXadrez {
 
@@ -16,98 +18,41 @@ public class Rei extends PecaXadrez {
 	}
 
 	@Override
-	public String toString() {
-		return "K";
-	}
-
-	private boolean podeMover(Posicao posicao) {
-		PecaXadrez p = (PecaXadrez) getTabuleiro().peca(posicao);
-		return p == null || p.getCor() != getCor();
+	public TipoPeca getTipo() {
+		return TipoPeca.REI;
 	}
 
-	private boolean testeRoque(Posicao posicao) {
-		PecaXadrez p = (PecaXadrez) getTabuleiro().peca(posicao);
-		return p != null && p instanceof Torre && p.getCor() == getCor() && p.getContagemMovimentos() == 0;
+	@Override
+	public String toString() {
+		return "K";
 	}
 
 	@Override
-	public boolean[][] possiveisMovimentos() {
-		boolean[][] mat = new boolean[getTabuleiro().getLinhas()][getTabuleiro().getColunas()];
-
-		Posicao p = new Posicao(0, 0);
-
-		// acima
-		p.setValores(posicao.getLinha() - 1, posicao.getColuna());
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// abaixo
-		p.setValores(posicao.getLinha() + 1, posicao.getColuna());
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// esquerda
-		p.setValores(posicao.getLinha(), posicao.getColuna() - 1);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// direita
-		p.setValores(posicao.getLinha(), posicao.getColuna() + 1);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// noroeste
-		p.setValores(posicao.getLinha() - 1, posicao.getColuna() - 1);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// nordeste
-		p.setValores(posicao.getLinha() - 1, posicao.getColuna() + 1);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// sudoeste
-		p.setValores(posicao.getLinha() + 1, posicao.getColuna() - 1);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// sudeste
-		p.setValores(posicao.getLinha() + 1, posicao.getColuna() + 1);
-		if (getTabuleiro().posicaoExiste(p) && podeMover(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
+	public long movimentosBits() {
+		int casa = getCasa();
+		long bits = Ataques.rei(casa) & ~ocupacaoPropria();
 
 		// $movimentoEspecial Roque
-		if (getContagemMovimentos() == 0 && !partidaXadrez.getXeque()) {
+		// o direito de roque so sobrevive com rei e torre parados nas casas de origem, entao basta ele
+		// e as casas vazias entre os dois
+		if (!partidaXadrez.getXeque()) {
+			int direitos = partidaXadrez.getDireitosRoque();
+			boolean branca = getCor() == Cor.BRANCO;
+			long ocupacao = getTabuleiro().getOcupacao();
+
 			// #movimentoEspecial Roque ao lado do rei
-			Posicao posT1 = new Posicao(posicao.getLinha(), posicao.getColuna() + 3);
-			if (testeRoque(posT1)) {
-				Posicao p1 = new Posicao(posicao.getLinha(), posicao.getColuna() + 1);
-				Posicao p2 = new Posicao(posicao.getLinha(), posicao.getColuna() + 2);
-				if (getTabuleiro().peca(p1) == null && getTabuleiro().peca(p2) == null) {
-					mat[posicao.getLinha()][posicao.getColuna() + 2] = true;
-				}
+			if ((direitos & (branca ? PartidaXadrez.ROQUE_BRANCO_REI : PartidaXadrez.ROQUE_PRETO_REI)) != 0
+					&& (ocupacao & (Bitboards.bit(casa + 1) | Bitboards.bit(casa + 2))) == 0) {
+				bits |= Bitboards.bit(casa + 2);
 			}
 
 			// #movimentoEspecial Roque ao lado da rainha
-			Posicao posT2 = new Posicao(posicao.getLinha(), posicao.getColuna() - 4);
-			if (testeRoque(posT1)) {
-				Posicao p1 = new Posicao(posicao.getLinha(), posicao.getColuna() - 1);
-				Posicao p2 = new Posicao(posicao.getLinha(), posicao.getColuna() - 2);
-				Posicao p3 = new Posicao(posicao.getLinha(), posicao.getColuna() - 3);
-				if (getTabuleiro().peca(p1) == null && getTabuleiro().peca(p2) == null && getTabuleiro().peca(p3) == null) {
-					mat[posicao.getLinha()][posicao.getColuna() - 2] = true;
-				}
+			if ((direitos & (branca ? PartidaXadrez.ROQUE_BRANCO_RAINHA : PartidaXadrez.ROQUE_PRETO_RAINHA)) != 0
+					&& (ocupacao & (Bitboards.bit(casa - 1) | Bitboards.bit(casa - 2) | Bitboards.bit(casa - 3))) == 0) {
+				bits |= Bitboards.bit(casa - 2);
 			}
 		}
 
-		return mat;
+		return bits;
 	}
 }
@@ -1,9 +1,10 @@
 package xadrez.pecas;
 
-import camadaTabuleiro.Posicao;
 import camadaTabuleiro.Tabuleiro;
+import xadrez.Ataques;
 import xadrez.Cor;
 import xadrez.PecaXadrez;
+import xadrez.TipoPeca;
 
 public class Torre extends PecaXadrez {
 
@@ -11,57 +12,18 @@ public class Torre extends PecaXadrez {
 		super(tabuleiro, cor);
 	}
 
+	@Override
+	public TipoPeca getTipo() {
+		return TipoPeca.TORRE;
+	}
+
 	@Override
 	public String toString() {
 		return "T";
 	}
 
 	@Override
-	public boolean[][] possiveisMovimentos() {
-		boolean[][] mat = new boolean[getTabuleiro().getLinhas()][getTabuleiro().getColunas()];
-
-		Posicao p = new Posicao(0, 0);
-
-		// acima
-		p.setValores(posicao.getLinha() - 1, posicao.getColuna());
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setLinha(p.getLinha() - 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		// esquerda
-		p.setValores(posicao.getLinha(), posicao.getColuna() - 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setColuna(p.getColuna() - 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-		
-		// direita
-		p.setValores(posicao.getLinha(), posicao.getColuna() + 1);
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setColuna(p.getColuna() + 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-		
-		// abaixo
-		p.setValores(posicao.getLinha() + 1, posicao.getColuna());
-		while (getTabuleiro().posicaoExiste(p) && !getTabuleiro().pecaExiste(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-			p.setLinha(p.getLinha() + 1);
-		}
-		if (getTabuleiro().posicaoExiste(p) && existePecaAdversaria(p)) {
-			mat[p.getLinha()][p.getColuna()] = true;
-		}
-
-		return mat;
+	public long movimentosBits() {
+		return Ataques.torre(getCasa(), getTabuleiro().getOcupacao()) & ~ocupacaoPropria();
 	}
 }
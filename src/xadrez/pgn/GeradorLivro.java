@@ -0,0 +1,103 @@
+package xadrez.pgn;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import camadaTabuleiro.TabuleiroException;
+import xadrez.Cor;
+import xadrez.ListaMovimentos;
+import xadrez.PartidaXadrez;
+import xadrez.motor.LivroAberturas;
+
+public class GeradorLivro {
+
+	private static final int PESO_MAXIMO = 0xFFFF;
+
+	private final int plies;
+	private final Map<Long, Map<Integer, Integer>> pesos = new HashMap<>();
+	private long partidas;
+
+	public GeradorLivro(int plies) {
+		this.plies = plies;
+	}
+
+	public long getPartidas() {
+		return partidas;
+	}
+
+	public int getPosicoes() {
+		return pesos.size();
+	}
+
+	public void adicionar(Path arquivo) throws IOException {
+		try (LeitorPgn leitor = new LeitorPgn(arquivo)) {
+			PartidaPgn partida;
+			while ((partida = leitor.proxima()) != null) {
+				adicionar(partida);
+			}
+		}
+	}
+
+	// vitoria vale 2 para o lado que jogou o lance, empate vale 1 e derrota nao conta; partida sem
+	// resultado (*, ou sem a tag) nao diz nada sobre os lances e fica de fora
+	public void adicionar(PartidaPgn partida) {
+		if (partida.isTruncada() || partida.getTag("FEN") != null) {
+			return;
+		}
+		String resultado = partida.getTag("Result");
+		if (!"1-0".equals(resultado) && !"0-1".equals(resultado) && !"1/2-1/2".equals(resultado)) {
+			return;
+		}
+		PartidaXadrez jogo = new PartidaXadrez();
+		ListaMovimentos lista = new ListaMovimentos();
+		int[] ply = new int[1];
+		try {
+			ValidadorPgn.percorrerLances(partida.getLances(), token -> {
+				int movimento = NotacaoSan.paraMovimento(jogo, token, lista);
+				int pontos = pontos(resultado, jogo.getJogadorAtual());
+				if (pontos > 0) {
+					pesos.computeIfAbsent(LivroAberturas.chave(jogo), k -> new HashMap<>())
+							.merge(LivroAberturas.paraPolyglot(movimento), pontos, Integer::sum);
+				}
+				jogo.fazerMovimento(movimento);
+				return ++ply[0] < plies;
+			});
+			partidas++;
+		} catch (TabuleiroException | IllegalStateException e) {
+			// partida ilegal: so os lances anteriores ao erro entram no livro
+		}
+	}
+
+	public void gravar(Path arquivo) throws IOException {
+		List<Long> chaves = new ArrayList<>(pesos.keySet());
+		chaves.sort(Long::compareUnsigned);
+		try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(arquivo), 1 << 16))) {
+			for (long chave : chaves) {
+				for (Map.Entry<Integer, Integer> e : pesos.get(chave).entrySet()) {
+					saida.writeLong(chave);
+					saida.writeShort(e.getKey());
+					saida.writeShort(Math.min(e.getValue(), PESO_MAXIMO));
+					saida.writeInt(0);
+				}
+			}
+		}
+	}
+
+	private static int pontos(String resultado, Cor cor) {
+		if ("1-0".equals(resultado)) {
+			return (cor == Cor.BRANCO) ? 2 : 0;
+		}
+		if ("0-1".equals(resultado)) {
+			return (cor == Cor.PRETO) ? 2 : 0;
+		}
+		return 1;
+	}
+
+}
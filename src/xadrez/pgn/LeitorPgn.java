@@ -0,0 +1,96 @@
+package xadrez.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class LeitorPgn implements Closeable {
+
+	public static final int TAMANHO_BUFFER = 1 << 16;
+	public static final int LIMITE_LANCES = 1 << 20;
+
+	private final FileChannel canal;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+	private final StringBuilder linha = new StringBuilder(256);
+	private boolean fimArquivo;
+	private String linhaPendente;
+	private long partidas;
+
+	public LeitorPgn(Path arquivo) throws IOException {
+		canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+		buffer.flip();
+	}
+
+	public long getPartidas() {
+		return partidas;
+	}
+
+	// uma partida por vez: a memoria usada nao depende do tamanho do arquivo
+	public PartidaPgn proxima() throws IOException {
+		PartidaPgn partida = null;
+		String texto;
+		while ((texto = proximaLinha()) != null) {
+			if (texto.isEmpty() || texto.charAt(0) == '%') {
+				continue;
+			}
+			if (partida == null) {
+				partida = new PartidaPgn(++partidas);
+			}
+			if (texto.charAt(0) == '[') {
+				if (partida.temLances()) {
+					linhaPendente = texto;
+					return partida;
+				}
+				lerTag(partida, texto);
+			} else {
+				partida.adicionarLances(texto, LIMITE_LANCES);
+			}
+		}
+		return partida;
+	}
+
+	private void lerTag(PartidaPgn partida, String texto) {
+		int espaco = texto.indexOf(' ');
+		int abre = texto.indexOf('"');
+		int fecha = texto.lastIndexOf('"');
+		if (espaco > 1 && abre > espaco && fecha > abre) {
+			partida.adicionarTag(texto.substring(1, espaco), texto.substring(abre + 1, fecha));
+		}
+	}
+
+	private String proximaLinha() throws IOException {
+		if (linhaPendente != null) {
+			String texto = linhaPendente;
+			linhaPendente = null;
+			return texto;
+		}
+		linha.setLength(0);
+		while (true) {
+			if (!buffer.hasRemaining()) {
+				if (fimArquivo) {
+					return (linha.length() > 0) ? linha.toString().trim() : null;
+				}
+				buffer.clear();
+				fimArquivo = canal.read(buffer) < 0;
+				buffer.flip();
+				continue;
+			}
+			char c = (char) (buffer.get() & 0xFF);
+			if (c == '\n') {
+				return linha.toString().trim();
+			}
+			if (linha.length() < LIMITE_LANCES) {
+				linha.append(c);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		canal.close();
+	}
+
+}
@@ -0,0 +1,106 @@
+package xadrez.pgn;
+
+import xadrez.Bitboards;
+import xadrez.ListaMovimentos;
+import xadrez.Movimento;
+import xadrez.PartidaXadrez;
+import xadrez.TipoPeca;
+import xadrez.XadrezException;
+
+public final class NotacaoSan {
+
+	private static final String LETRAS_PECAS = "PNBRQK";
+
+	private NotacaoSan() {
+	}
+
+	public static int paraMovimento(PartidaXadrez partida, String san) {
+		return paraMovimento(partida, san, new ListaMovimentos());
+	}
+
+	public static int paraMovimento(PartidaXadrez partida, String san, ListaMovimentos lista) {
+		int fim = san.length();
+		while (fim > 0 && "+#!?".indexOf(san.charAt(fim - 1)) >= 0) {
+			fim--;
+		}
+		String lance = san.substring(0, fim);
+		int total = partida.gerarMovimentosLegais(lista);
+
+		// #movimentoEspecial Roque
+		if (lance.equals("O-O") || lance.equals("0-0") || lance.equals("O-O-O") || lance.equals("0-0-0")) {
+			int coluna = (lance.length() == 3) ? 6 : 2;
+			for (int i = 0; i < total; i++) {
+				int m = lista.get(i);
+				if (Movimento.roque(m) && Bitboards.coluna(Movimento.destino(m)) == coluna) {
+					return m;
+				}
+			}
+			throw new XadrezException("Roque ilegal: " + san);
+		}
+
+		// #movimentoEspecial promocao
+		TipoPeca promocao = null;
+		if (fim >= 3 && "NBRQ".indexOf(lance.charAt(fim - 1)) >= 0) {
+			promocao = tipo(lance.charAt(fim - 1));
+			fim -= (lance.charAt(fim - 2) == '=') ? 2 : 1;
+		}
+		if (fim < 2) {
+			throw new XadrezException("Lance invalido: " + san);
+		}
+
+		char colunaDestino = lance.charAt(fim - 2);
+		char linhaDestino = lance.charAt(fim - 1);
+		if (colunaDestino < 'a' || colunaDestino > 'h' || linhaDestino < '1' || linhaDestino > '8') {
+			throw new XadrezException("Lance invalido: " + san);
+		}
+		int destino = Bitboards.casa('8' - linhaDestino, colunaDestino - 'a');
+
+		int inicio = 0;
+		TipoPeca tipo = TipoPeca.PEAO;
+		if (Character.isUpperCase(lance.charAt(0))) {
+			tipo = tipo(lance.charAt(0));
+			if (tipo == null) {
+				throw new XadrezException("Lance invalido: " + san);
+			}
+			inicio = 1;
+		}
+		int colunaOrigem = -1;
+		int linhaOrigem = -1;
+		for (int i = inicio; i < fim - 2; i++) {
+			char c = lance.charAt(i);
+			if (c >= 'a' && c <= 'h') {
+				colunaOrigem = c - 'a';
+			} else if (c >= '1' && c <= '8') {
+				linhaOrigem = '8' - c;
+			} else if (c != 'x' && c != ':' && c != '-') {
+				throw new XadrezException("Lance invalido: " + san);
+			}
+		}
+
+		long pecas = partida.bitboard(tipo, partida.getJogadorAtual());
+		int encontrado = 0;
+		for (int i = 0; i < total; i++) {
+			int m = lista.get(i);
+			int origem = Movimento.origem(m);
+			if (Movimento.destino(m) != destino || !Bitboards.contem(pecas, origem) || Movimento.promocao(m) != promocao
+					|| (colunaOrigem >= 0 && Bitboards.coluna(origem) != colunaOrigem)
+					|| (linhaOrigem >= 0 && Bitboards.linha(origem) != linhaOrigem)) {
+				continue;
+			}
+			if (encontrado != 0) {
+				throw new XadrezException("Lance ambiguo: " + san);
+			}
+			encontrado = m;
+		}
+		if (encontrado == 0) {
+			throw new XadrezException("Lance ilegal: " + san);
+		}
+		return encontrado;
+	}
+
+	private static TipoPeca tipo(char letra) {
+		int i = LETRAS_PECAS.indexOf(letra);
+		return (i < 0) ? null : TipoPeca.values()[i];
+	}
+
+}
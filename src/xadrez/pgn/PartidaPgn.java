@@ -0,0 +1,53 @@
+package xadrez.pgn;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PartidaPgn {
+
+	private final long numero;
+	private final Map<String, String> tags = new LinkedHashMap<>();
+	private final StringBuilder lances = new StringBuilder();
+	private boolean truncada;
+
+	public PartidaPgn(long numero) {
+		this.numero = numero;
+	}
+
+	public long getNumero() {
+		return numero;
+	}
+
+	public String getTag(String nome) {
+		return tags.get(nome);
+	}
+
+	public Map<String, String> getTags() {
+		return tags;
+	}
+
+	public String getLances() {
+		return lances.toString();
+	}
+
+	public boolean isTruncada() {
+		return truncada;
+	}
+
+	void adicionarTag(String nome, String valor) {
+		tags.put(nome, valor);
+	}
+
+	void adicionarLances(CharSequence linha, int limite) {
+		if (lances.length() + linha.length() + 1 > limite) {
+			truncada = true;
+			return;
+		}
+		lances.append(linha).append('\n');
+	}
+
+	boolean temLances() {
+		return lances.length() > 0 || truncada;
+	}
+
+}
@@ -0,0 +1,81 @@
+package xadrez.pgn;
+
+import xadrez.EstadoPartida;
+
+public class ResultadoPgn {
+
+	private final long numero;
+	private final String brancas;
+	private final String pretas;
+	private final String resultado;
+	private final int lances;
+	private final EstadoPartida estado;
+	private final String erro;
+	private final String divergencia;
+
+	public ResultadoPgn(long numero, String brancas, String pretas, String resultado, int lances, EstadoPartida estado,
+			String erro, String divergencia) {
+		this.numero = numero;
+		this.brancas = brancas;
+		this.pretas = pretas;
+		this.resultado = resultado;
+		this.lances = lances;
+		this.estado = estado;
+		this.erro = erro;
+		this.divergencia = divergencia;
+	}
+
+	public long getNumero() {
+		return numero;
+	}
+
+	public String getBrancas() {
+		return brancas;
+	}
+
+	public String getPretas() {
+		return pretas;
+	}
+
+	public String getResultado() {
+		return resultado;
+	}
+
+	public int getLances() {
+		return lances;
+	}
+
+	// estado da posicao final; nulo quando a partida nao pode ser reproduzida
+	public EstadoPartida getEstado() {
+		return estado;
+	}
+
+	public boolean isXequeMate() {
+		return estado == EstadoPartida.XEQUE_MATE;
+	}
+
+	public boolean isLegal() {
+		return erro == null;
+	}
+
+	public String getErro() {
+		return erro;
+	}
+
+	// a tag Result nao bate com o fim reproduzido no tabuleiro
+	public boolean isResultadoCoerente() {
+		return divergencia == null;
+	}
+
+	public String getDivergencia() {
+		return divergencia;
+	}
+
+	@Override
+	public String toString() {
+		return "#" + numero + " " + brancas + " x " + pretas + " " + resultado + " lances=" + lances
+				+ (isXequeMate() ? " xeque-mate" : "") + (isLegal() ? " ok" : " ERRO: " + erro)
+				+ (isResultadoCoerente() ? "" : " DIVERGENTE: " + divergencia);
+	}
+
+}
@@ -0,0 +1,178 @@
+package xadrez.pgn;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import camadaTabuleiro.TabuleiroException;
+import xadrez.Cor;
+import xadrez.EstadoPartida;
+import xadrez.ListaMovimentos;
+import xadrez.PartidaXadrez;
+
+public class ValidadorPgn {
+
+	private static final int PARTIDAS_POR_THREAD = 4;
+
+	private final int threads;
+
+	public ValidadorPgn(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("O validador precisa de pelo menos 1 thread");
+		}
+		this.threads = threads;
+	}
+
+	// a saida eh chamada pelas threads do pool, na ordem em que as partidas terminam
+	public long validar(Path arquivo, Consumer<ResultadoPgn> saida) throws IOException, InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		Semaphore vagas = new Semaphore(threads * PARTIDAS_POR_THREAD);
+		try (LeitorPgn leitor = new LeitorPgn(arquivo)) {
+			PartidaPgn partida;
+			while ((partida = leitor.proxima()) != null) {
+				vagas.acquire();
+				PartidaPgn atual = partida;
+				executor.execute(() -> {
+					try {
+						saida.accept(validar(atual));
+					} finally {
+						vagas.release();
+					}
+				});
+			}
+			return leitor.getPartidas();
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	public static ResultadoPgn validar(PartidaPgn partida) {
+		String brancas = partida.getTag("White");
+		String pretas = partida.getTag("Black");
+		String resultado = partida.getTag("Result");
+		if (partida.isTruncada()) {
+			return new ResultadoPgn(partida.getNumero(), brancas, pretas, resultado, 0, null,
+					"Partida maior que " + LeitorPgn.LIMITE_LANCES + " caracteres", null);
+		}
+
+		PartidaXadrez jogo = null;
+		ListaMovimentos lista = new ListaMovimentos();
+		// meio-lances aceitos e o lance SAN em curso, para apontar onde a reproducao falhou
+		int[] total = new int[1];
+		String[] token = new String[1];
+		String erro = null;
+		try {
+			String fen = partida.getTag("FEN");
+			jogo = (fen != null) ? PartidaXadrez.fromFen(fen) : new PartidaXadrez();
+			PartidaXadrez atual = jogo;
+			percorrerLances(partida.getLances(), san -> {
+				token[0] = san;
+				atual.fazerMovimento(NotacaoSan.paraMovimento(atual, san, lista));
+				total[0]++;
+				return true;
+			});
+		} catch (TabuleiroException | IllegalStateException e) {
+			erro = (token[0] == null) ? e.getMessage() : "meio-lance " + (total[0] + 1) + " (" + token[0] + "): " + e.getMessage();
+		}
+		int lances = total[0];
+		if (erro != null) {
+			return new ResultadoPgn(partida.getNumero(), brancas, pretas, resultado, lances, null, erro, null);
+		}
+		EstadoPartida estado = jogo.getEstado();
+		return new ResultadoPgn(partida.getNumero(), brancas, pretas, resultado, lances, estado, null,
+				divergencia(resultado, estado, jogo));
+	}
+
+	// so mate, afogamento e material insuficiente encerram a partida por si; repeticao e cinquenta lances
+	// precisam ser reclamados, e quem continua jogando pode ainda ganhar ou perder. Em andamento vale
+	// qualquer resultado (abandono, tempo, acordo)
+	private static String divergencia(String resultado, EstadoPartida estado, PartidaXadrez jogo) {
+		String esperado;
+		if (estado == EstadoPartida.XEQUE_MATE) {
+			// quem leva mate eh o lado a jogar
+			esperado = (jogo.getJogadorAtual() == Cor.PRETO) ? "1-0" : "0-1";
+		} else if (estado == EstadoPartida.AFOGAMENTO || estado == EstadoPartida.MATERIAL_INSUFICIENTE) {
+			esperado = "1/2-1/2";
+		} else {
+			return null;
+		}
+		if (resultado == null || esperado.equals(resultado)) {
+			return null;
+		}
+		return "Result " + resultado + " mas a partida termina em " + estado + " (" + esperado + ")";
+	}
+
+	// entrega cada lance SAN do corpo da partida, sem comentarios, variantes, NAGs e numeros de lance
+	static void percorrerLances(String texto, Predicate<String> lance) {
+		int i = 0;
+		while (i < texto.length()) {
+			char c = texto.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (c == '{') {
+				i = pular(texto, i, '}');
+			} else if (c == ';') {
+				i = pular(texto, i, '\n');
+			} else if (c == '(') {
+				i = pularVariante(texto, i);
+			} else {
+				int fim = i;
+				while (fim < texto.length() && !Character.isWhitespace(texto.charAt(fim)) && "{;(".indexOf(texto.charAt(fim)) < 0) {
+					fim++;
+				}
+				String token = semNumeroLance(texto.substring(i, fim));
+				i = fim;
+				if (token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) {
+					return;
+				}
+				if (token.isEmpty() || token.charAt(0) == '$') {
+					continue;
+				}
+				if (!lance.test(token)) {
+					return;
+				}
+			}
+		}
+	}
+
+	private static int pular(String texto, int i, char fim) {
+		int j = texto.indexOf(fim, i + 1);
+		return (j < 0) ? texto.length() : j + 1;
+	}
+
+	private static int pularVariante(String texto, int i) {
+		int nivel = 0;
+		for (; i < texto.length(); i++) {
+			char c = texto.charAt(i);
+			if (c == '{') {
+				i = pular(texto, i, '}') - 1;
+			} else if (c == '(') {
+				nivel++;
+			} else if (c == ')' && --nivel == 0) {
+				return i + 1;
+			}
+		}
+		return i;
+	}
+
+	private static String semNumeroLance(String token) {
+		int i = 0;
+		while (i < token.length() && Character.isDigit(token.charAt(i))) {
+			i++;
+		}
+		if (i == 0 || i == token.length() || token.charAt(i) != '.') {
+			return token;
+		}
+		while (i < token.length() && token.charAt(i) == '.') {
+			i++;
+		}
+		return token.substring(i);
+	}
+
+}
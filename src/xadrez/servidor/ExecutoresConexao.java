@@ -0,0 +1,34 @@
+package xadrez.servidor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class ExecutoresConexao {
+
+	private ExecutoresConexao() {
+	}
+
+	// uma virtual thread por tarefa quando a JVM oferece (Java 21+); senao um pool de threads comuns sob demanda
+	public static ExecutorService porTarefa(String nome) {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			return Executors.newCachedThreadPool(r -> {
+				Thread t = new Thread(r, nome);
+				t.setDaemon(true);
+				return t;
+			});
+		}
+	}
+
+	public static boolean virtuais() {
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+package xadrez.servidor;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import xadrez.PartidaXadrez;
+
+public class RegistroSessoes {
+
+	private final ConcurrentHashMap<Long, Sessao> sessoes = new ConcurrentHashMap<>();
+	private final AtomicLong proximoId = new AtomicLong();
+	private final AtomicLong removidas = new AtomicLong();
+	private final long inatividadeMs;
+	private final ScheduledExecutorService limpeza;
+
+	public RegistroSessoes(long inatividadeMs) {
+		if (inatividadeMs < 1) {
+			throw new IllegalArgumentException("O tempo de inatividade precisa ser positivo");
+		}
+		this.inatividadeMs = inatividadeMs;
+		limpeza = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "limpeza-sessoes");
+			t.setDaemon(true);
+			return t;
+		});
+		long periodo = Math.max(inatividadeMs / 4, 100L);
+		limpeza.scheduleAtFixedRate(this::removerInativas, periodo, periodo, TimeUnit.MILLISECONDS);
+	}
+
+	public Sessao criar(PartidaXadrez partida) {
+		Sessao sessao = new Sessao(proximoId.incrementAndGet(), partida);
+		sessoes.put(sessao.getId(), sessao);
+		return sessao;
+	}
+
+	public Sessao buscar(long id) {
+		Sessao sessao = sessoes.get(id);
+		if (sessao != null) {
+			sessao.tocar();
+		}
+		return sessao;
+	}
+
+	public boolean remover(long id) {
+		return sessoes.remove(id) != null;
+	}
+
+	public int getTotal() {
+		return sessoes.size();
+	}
+
+	public long getRemovidas() {
+		return removidas.get();
+	}
+
+	public int removerInativas() {
+		long limite = System.currentTimeMillis() - inatividadeMs;
+		int total = 0;
+		for (Iterator<Sessao> it = sessoes.values().iterator(); it.hasNext();) {
+			Sessao sessao = it.next();
+			if (sessao.getUltimoAcesso() < limite && !sessao.isOcupada()) {
+				it.remove();
+				sessao.fechar();
+				total++;
+			}
+		}
+		removidas.addAndGet(total);
+		return total;
+	}
+
+	public void encerrar() {
+		limpeza.shutdownNow();
+		for (Sessao sessao : sessoes.values()) {
+			sessao.fechar();
+		}
+		sessoes.clear();
+	}
+
+}
@@ -0,0 +1,252 @@
+package xadrez.servidor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import camadaTabuleiro.TabuleiroException;
+import xadrez.EstadoPartida;
+import xadrez.Movimento;
+import xadrez.PartidaXadrez;
+import xadrez.motor.Busca;
+import xadrez.motor.LimitesBusca;
+import xadrez.motor.TabelaTransposicao;
+
+public class ServidorPartidas implements Closeable {
+
+	private static final long TEMPO_MOTOR_PADRAO = 100L;
+	private static final long TEMPO_MOTOR_MAXIMO = 10_000L;
+
+	private final ServerSocket servidor;
+	private final RegistroSessoes registro;
+	private final TabelaTransposicao tabela;
+	private final ExecutorService conexoes = ExecutoresConexao.porTarefa("conexao-partida");
+	private final AtomicInteger conexoesAbertas = new AtomicInteger();
+	private final AtomicLong comandos = new AtomicLong();
+	private volatile boolean ativo = true;
+
+	public ServidorPartidas(int porta, RegistroSessoes registro, TabelaTransposicao tabela) throws IOException {
+		servidor = new ServerSocket(porta, 1024, InetAddress.getLoopbackAddress());
+		this.registro = registro;
+		this.tabela = tabela;
+	}
+
+	public int getPorta() {
+		return servidor.getLocalPort();
+	}
+
+	public int getConexoesAbertas() {
+		return conexoesAbertas.get();
+	}
+
+	public long getComandos() {
+		return comandos.get();
+	}
+
+	public void executar() throws IOException {
+		while (ativo) {
+			Socket socket;
+			try {
+				socket = servidor.accept();
+			} catch (IOException e) {
+				if (!ativo) {
+					return;
+				}
+				throw e;
+			}
+			conexoes.execute(() -> atender(socket));
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		ativo = false;
+		servidor.close();
+		conexoes.shutdownNow();
+	}
+
+	private void atender(Socket socket) {
+		conexoesAbertas.incrementAndGet();
+		Conexao conexao = new Conexao(socket);
+		try (Socket s = socket;
+				BufferedReader entrada = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.ISO_8859_1));
+				BufferedWriter saida = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.ISO_8859_1))) {
+			s.setTcpNoDelay(true);
+			String linha;
+			while ((linha = entrada.readLine()) != null) {
+				linha = linha.trim();
+				if (linha.isEmpty()) {
+					continue;
+				}
+				comandos.incrementAndGet();
+				if (linha.equalsIgnoreCase("SAIR")) {
+					saida.write("OK ATE\n");
+					saida.flush();
+					return;
+				}
+				saida.write(responder(linha, conexao));
+				saida.write('\n');
+				saida.flush();
+			}
+		} catch (IOException e) {
+			// conexao derrubada pelo cliente, ou fechada porque a sessao expirou
+		} finally {
+			conexao.trocarSessao(null);
+			conexoesAbertas.decrementAndGet();
+		}
+	}
+
+	private String responder(String linha, Conexao conexao) {
+		int espaco = linha.indexOf(' ');
+		String comando = ((espaco < 0) ? linha : linha.substring(0, espaco)).toUpperCase();
+		String argumento = (espaco < 0) ? "" : linha.substring(espaco + 1).trim();
+		try {
+			switch (comando) {
+			case "PING":
+				return "OK PONG";
+			case "INFO":
+				return "OK sessoes=" + registro.getTotal() + " conexoes=" + conexoesAbertas.get() + " comandos=" + comandos.get()
+						+ " expiradas=" + registro.getRemovidas();
+			case "NOVA":
+				PartidaXadrez partida = argumento.isEmpty() ? new PartidaXadrez() : PartidaXadrez.fromFen(argumento);
+				Sessao nova = registro.criar(partida);
+				conexao.trocarSessao(nova);
+				return "OK " + nova.getId();
+			case "ENTRAR":
+				Sessao sessao = registro.buscar(Long.parseLong(argumento));
+				if (sessao == null) {
+					return "ERRO Sessao inexistente: " + argumento;
+				}
+				conexao.trocarSessao(sessao);
+				return "OK " + sessao.getId();
+			default:
+				break;
+			}
+
+			Sessao sessao = conexao.sessao;
+			if (sessao == null || registro.buscar(sessao.getId()) == null) {
+				conexao.trocarSessao(null);
+				return "ERRO Nenhuma sessao ativa, use NOVA ou ENTRAR";
+			}
+			if (comando.equals("MOTOR")) {
+				return motor(sessao, argumento, conexao);
+			}
+			synchronized (sessao) {
+				PartidaXadrez partida = sessao.getPartida();
+				switch (comando) {
+				case "FEN":
+					return "OK " + partida.toFen();
+				case "MOVIMENTOS":
+					return "OK " + sessao.movimentosLegais();
+				case "ESTADO":
+					return "OK " + estado(partida);
+				case "LANCE":
+					return jogar(sessao, sessao.movimento(argumento.toLowerCase()), argumento);
+				case "FIM":
+					registro.remover(sessao.getId());
+					conexao.trocarSessao(null);
+					return "OK " + sessao.getId();
+				default:
+					return "ERRO Comando desconhecido: " + comando;
+				}
+			}
+		} catch (TabuleiroException | IllegalStateException | IllegalArgumentException e) {
+			return "ERRO " + e.getMessage();
+		}
+	}
+
+	// a busca roda numa copia fora do lock, para as outras conexoes da sessao nao esperarem o motor;
+	// o lance so eh jogado se ninguem mexeu na partida enquanto isso
+	private String motor(Sessao sessao, String argumento, Conexao conexao) {
+		long tempo = argumento.isEmpty() ? TEMPO_MOTOR_PADRAO : Math.min(Long.parseLong(argumento), TEMPO_MOTOR_MAXIMO);
+		PartidaXadrez copia;
+		synchronized (sessao) {
+			if (sessao.getPartida().getEstado().isEncerrada()) {
+				return "ERRO Partida encerrada";
+			}
+			copia = new PartidaXadrez(sessao.getPartida());
+			sessao.iniciarBusca();
+		}
+		int movimento;
+		try {
+			movimento = conexao.pensar(copia, tempo);
+		} finally {
+			sessao.terminarBusca();
+		}
+		synchronized (sessao) {
+			PartidaXadrez partida = sessao.getPartida();
+			if (partida.getChave() != copia.getChave() || partida.getTurno() != copia.getTurno()) {
+				return "ERRO A partida mudou durante a busca";
+			}
+			return jogar(sessao, movimento, "motor");
+		}
+	}
+
+	private String jogar(Sessao sessao, int movimento, String texto) {
+		PartidaXadrez partida = sessao.getPartida();
+		if (partida.getEstado().isEncerrada()) {
+			return "ERRO Partida encerrada";
+		}
+		if (movimento == 0) {
+			return "ERRO Lance ilegal: " + texto;
+		}
+		// a sessao encerrada continua no registro ate o FIM ou a expiracao, para quem acompanha ver o fim
+		partida.executaMovimento(movimento);
+		return "OK " + Movimento.paraTexto(movimento) + " " + estado(partida);
+	}
+
+	private static String estado(PartidaXadrez partida) {
+		EstadoPartida estado = partida.getEstado();
+		if (estado == EstadoPartida.XEQUE_MATE) {
+			return "XEQUEMATE " + partida.getVencedor();
+		}
+		if (estado.isEmpate()) {
+			return "EMPATE " + estado;
+		}
+		return partida.getJogadorAtual() + (partida.getXeque() ? " XEQUE" : "");
+	}
+
+	// estado de uma conexao: a sessao em que esta e o motor, criado no primeiro MOTOR e reaproveitado
+	// nos seguintes
+	private final class Conexao {
+
+		private final Socket socket;
+		private Sessao sessao;
+		private Busca busca;
+
+		Conexao(Socket socket) {
+			this.socket = socket;
+		}
+
+		void trocarSessao(Sessao nova) {
+			if (sessao != null) {
+				sessao.desanexar(socket);
+			}
+			sessao = nova;
+			if (nova != null) {
+				nova.anexar(socket);
+			}
+		}
+
+		int pensar(PartidaXadrez partida, long tempo) {
+			if (busca == null) {
+				busca = new Busca(partida, tabela);
+				busca.setEnvelhecerTabela(false);
+			} else {
+				busca.setPartida(partida);
+			}
+			return busca.buscar(LimitesBusca.porTempo(Math.max(tempo, 1L))).getMelhorMovimento();
+		}
+	}
+
+}
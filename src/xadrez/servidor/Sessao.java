@@ -0,0 +1,102 @@
+package xadrez.servidor;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import xadrez.ListaMovimentos;
+import xadrez.Movimento;
+import xadrez.PartidaXadrez;
+
+public class Sessao {
+
+	private final long id;
+	private final PartidaXadrez partida;
+	private final ListaMovimentos lista = new ListaMovimentos();
+	private final Set<Socket> conexoes = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger buscas = new AtomicInteger();
+	private volatile long ultimoAcesso;
+
+	public Sessao(long id, PartidaXadrez partida) {
+		this.id = id;
+		this.partida = partida;
+		tocar();
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	// quem usar a partida deve sincronizar na sessao: varias conexoes podem entrar no mesmo jogo
+	public PartidaXadrez getPartida() {
+		return partida;
+	}
+
+	public long getUltimoAcesso() {
+		return ultimoAcesso;
+	}
+
+	public void tocar() {
+		ultimoAcesso = System.currentTimeMillis();
+	}
+
+	// sessao com o motor pensando nao esta inativa, mesmo que ninguem mande comandos
+	public void iniciarBusca() {
+		buscas.incrementAndGet();
+	}
+
+	public void terminarBusca() {
+		tocar();
+		buscas.decrementAndGet();
+	}
+
+	public boolean isOcupada() {
+		return buscas.get() > 0;
+	}
+
+	public void anexar(Socket socket) {
+		conexoes.add(socket);
+	}
+
+	public void desanexar(Socket socket) {
+		conexoes.remove(socket);
+	}
+
+	// fecha as conexoes ainda presas a sessao; a thread de cada uma sai do readLine com IOException
+	public void fechar() {
+		for (Socket socket : conexoes) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ja fechado pelo outro lado
+			}
+		}
+		conexoes.clear();
+	}
+
+	public synchronized int movimento(String texto) {
+		partida.gerarMovimentosLegais(lista);
+		for (int i = 0; i < lista.getTamanho(); i++) {
+			String lance = Movimento.paraTexto(lista.get(i));
+			if (lance.equals(texto) || (texto.length() == 4 && lance.equals(texto + "q"))) {
+				return lista.get(i);
+			}
+		}
+		return 0;
+	}
+
+	public synchronized String movimentosLegais() {
+		partida.gerarMovimentosLegais(lista);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < lista.getTamanho(); i++) {
+			if (i > 0) {
+				sb.append(' ');
+			}
+			sb.append(Movimento.paraTexto(lista.get(i)));
+		}
+		return sb.toString();
+	}
+
+}